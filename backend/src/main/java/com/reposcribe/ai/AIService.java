@@ -1,20 +1,28 @@
 package com.reposcribe.ai;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reposcribe.ai.dto.ProjectAnalysis;
 import com.reposcribe.parser.model.ClassInfo;
 import com.reposcribe.parser.model.MethodInfo;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class AIService {
 
     private final OllamaClient ollamaClient;
+    private final HierarchicalSummarizer summarizer;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public AIService(OllamaClient ollamaClient) {
+    public AIService(OllamaClient ollamaClient, HierarchicalSummarizer summarizer) {
         this.ollamaClient = ollamaClient;
+        this.summarizer = summarizer;
     }
 
     public String analyzeClass(ClassInfo classInfo) throws IOException {
@@ -32,6 +40,42 @@ public class AIService {
         return ollamaClient.generate(prompt);
     }
 
+    /**
+     * Generate the project overview, passing tokens to the callback as they are produced
+     */
+    public String generateProjectOverview(List<ClassInfo> classes, Consumer<String> onToken) throws IOException {
+        String prompt = buildProjectOverviewPrompt(classes);
+        return ollamaClient.generateStream(prompt, onToken);
+    }
+
+    /**
+     * Generate the overview and the architecture analysis with a single request.
+     * The class inventory is sent once and the model answers with a JSON object
+     * holding both sections.
+     * @throws IOException if the call fails or the answer lacks either section
+     */
+    public ProjectAnalysis analyzeProject(List<ClassInfo> classes) throws IOException {
+        String prompt = buildProjectAnalysisPrompt(classes);
+        return ollamaClient.generateJson(prompt, this::parseProjectAnalysis);
+    }
+
+    private ProjectAnalysis parseProjectAnalysis(String json) throws IOException {
+        ProjectAnalysis analysis;
+        try {
+            analysis = objectMapper.readValue(json, ProjectAnalysis.class);
+        } catch (JsonProcessingException e) {
+            throw new IOException("Invalid combined analysis from Ollama: " + e.getOriginalMessage(), e);
+        }
+        if (isBlank(analysis.getOverview()) || isBlank(analysis.getArchitecture())) {
+            throw new IOException("Combined analysis from Ollama is missing a section");
+        }
+        return analysis;
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.isBlank();
+    }
+
     private String buildClassAnalysisPrompt(ClassInfo classInfo) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("Analyze this code class and provide a clear, concise description:\n\n");
@@ -102,32 +146,91 @@ public class AIService {
         return prompt.toString();
     }
 
-    private String buildProjectOverviewPrompt(List<ClassInfo> classes) {
+    private String buildProjectOverviewPrompt(List<ClassInfo> classes) throws IOException {
         StringBuilder prompt = new StringBuilder();
         prompt.append("Analyze this codebase structure and provide a project overview:\n\n");
         prompt.append("Total Classes: ").append(classes.size()).append("\n\n");
-        prompt.append("Classes:\n");
-        classes.forEach(classInfo -> {
-            prompt.append("- ").append(classInfo.getName());
-            if (classInfo.getPackageName() != null) {
-                prompt.append(" (").append(classInfo.getPackageName()).append(")");
-            }
-            prompt.append("\n  Methods: ").append(classInfo.getMethods().size());
-            prompt.append(", Fields: ").append(classInfo.getFields().size()).append("\n");
-        });
+        prompt.append(describeClasses(classes, false));
         prompt.append("\nProvide a comprehensive overview including: what the project does, main components, architecture patterns, and key technologies (4-5 sentences).");
         return prompt.toString();
     }
 
+    private String buildProjectAnalysisPrompt(List<ClassInfo> classes) throws IOException {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Analyze this codebase structure:\n\n");
+        prompt.append("Total Classes: ").append(classes.size()).append("\n\n");
+        prompt.append(describeClasses(classes, true));
+        prompt.append("\nRespond with a JSON object with two string fields:\n");
+        prompt.append("\"overview\": a comprehensive overview including what the project does, main components, ");
+        prompt.append("architecture patterns, and key technologies (4-5 sentences).\n");
+        prompt.append("\"architecture\": the architecture pattern (MVC, Layered, Microservices, Clean Architecture, etc.) ");
+        prompt.append("with an explanation of the structure and organization (3-4 sentences).");
+        return prompt.toString();
+    }
+
+    /**
+     * Class inventory for a project-wide prompt, summarized per package when the
+     * full listing would not fit the prompt budget
+     * @param includeStereotypes Whether to show Spring stereotype annotations
+     */
+    String describeClasses(List<ClassInfo> classes, boolean includeStereotypes) throws IOException {
+        // Package summaries always see the stereotypes, so every prompt shares them
+        return summarizer.describeClasses(classes,
+            classInfo -> describeClass(classInfo, includeStereotypes),
+            classInfo -> describeClass(classInfo, true));
+    }
+
+    private static String describeClass(ClassInfo classInfo, boolean includeStereotypes) {
+        StringBuilder line = new StringBuilder();
+        line.append("- ").append(classInfo.getName());
+        if (classInfo.getPackageName() != null) {
+            line.append(" (").append(classInfo.getPackageName()).append(")");
+        }
+        if (includeStereotypes) {
+            String annotations = classInfo.getAnnotations().stream()
+                .filter(a -> a.contains("Service") || a.contains("Controller") || a.contains("Component") || a.contains("Repository"))
+                .collect(Collectors.joining(", "));
+            if (!annotations.isEmpty()) {
+                line.append(" [").append(annotations).append("]");
+            }
+        }
+        line.append("\n  Methods: ").append(classInfo.getMethods().size());
+        line.append(", Fields: ").append(classInfo.getFields().size());
+        return line.toString();
+    }
+
     public boolean isAvailable() {
         return ollamaClient.isAvailable();
     }
 
+    public Map<String, Object> getHealthStatistics() {
+        return ollamaClient.getHealthStatistics();
+    }
+
+    public Map<String, Object> getLimiterStatistics() {
+        return ollamaClient.getLimiterStatistics();
+    }
+
+    public Map<String, Object> getCacheStatistics() {
+        return ollamaClient.getCacheStatistics();
+    }
+
+    public Map<String, Object> getSummaryStatistics() {
+        return summarizer.getStatistics();
+    }
+
     /**
      * Analyze architecture from a custom prompt
      */
     public String analyzeArchitecture(String prompt) throws IOException {
         return ollamaClient.generate(prompt);
     }
+
+    /**
+     * Analyze architecture from a custom prompt, streaming tokens to the callback
+     */
+    public String analyzeArchitecture(String prompt, Consumer<String> onToken) throws IOException {
+        return ollamaClient.generateStream(prompt, onToken);
+    }
 }
 
@@ -0,0 +1,282 @@
+package com.reposcribe.ai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reposcribe.ai.dto.ClassDescriptions;
+import com.reposcribe.ai.dto.ClassDocumentationBatch;
+import com.reposcribe.parser.model.ClassInfo;
+import com.reposcribe.parser.model.MethodInfo;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Writes an AI description for every class, and optionally every method, with
+ * few model calls. Classes are packed into batches up to a token budget, each
+ * batch is sent as one JSON request, and the per-item answers are mapped back
+ * to the {@link ClassInfo} and {@link MethodInfo} objects by the IDs given in
+ * the prompt. The descriptions are returned per run and never written into the
+ * parsed classes. A failed batch only leaves its classes undescribed.
+ */
+@Service
+public class ClassDocumentationService {
+
+    private final OllamaClient ollamaClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final boolean enabled;
+    private final boolean includeMethods;
+    private final int maxBatchTokens;
+    private final int maxBatchSize;
+    private final int parallelism;
+    // AI calls mostly wait on Ollama; the OllamaLimiter bounds how many actually run
+    private final ExecutorService batchExecutor = Executors.newCachedThreadPool();
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong describedClasses = new AtomicLong();
+    private final AtomicLong describedMethods = new AtomicLong();
+
+    public ClassDocumentationService(
+            OllamaClient ollamaClient,
+            @Value("${ai.class-docs.enabled:false}") boolean enabled,
+            @Value("${ai.class-docs.methods:true}") boolean includeMethods,
+            @Value("${ai.class-docs.max-batch-tokens:2000}") int maxBatchTokens,
+            @Value("${ai.class-docs.max-batch-size:20}") int maxBatchSize,
+            @Value("${ai.class-docs.parallelism:2}") int parallelism) {
+        this.ollamaClient = ollamaClient;
+        this.enabled = enabled;
+        this.includeMethods = includeMethods;
+        this.maxBatchTokens = maxBatchTokens;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Describe the classes (and their methods)
+     */
+    public ClassDescriptions documentClasses(List<ClassInfo> classes) throws IOException {
+        ClassDescriptions descriptions = new ClassDescriptions();
+        List<List<ClassInfo>> classBatches = pack(classes);
+        String user = OllamaLimiter.getCurrentUser();
+        Semaphore window = new Semaphore(parallelism);
+        List<Future<?>> results = new ArrayList<>(classBatches.size());
+
+        try {
+            for (List<ClassInfo> batch : classBatches) {
+                window.acquire();
+                results.add(batchExecutor.submit(() -> {
+                    OllamaLimiter.setCurrentUser(user);
+                    try {
+                        documentBatch(batch, descriptions);
+                    } finally {
+                        OllamaLimiter.setCurrentUser(null);
+                        window.release();
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            return descriptions;
+        } catch (InterruptedException e) {
+            results.forEach(result -> result.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while documenting classes", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to document classes: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Group classes into batches whose prompt blocks fit the token budget
+     */
+    private List<List<ClassInfo>> pack(List<ClassInfo> classes) {
+        List<List<ClassInfo>> packed = new ArrayList<>();
+        List<ClassInfo> current = new ArrayList<>();
+        int currentTokens = 0;
+        for (ClassInfo classInfo : classes) {
+            int tokens = TokenEstimator.estimate(describeClass(classInfo, "C0"));
+            if (!current.isEmpty() && (current.size() >= maxBatchSize || currentTokens + tokens > maxBatchTokens)) {
+                packed.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(classInfo);
+            currentTokens += tokens;
+        }
+        if (!current.isEmpty()) {
+            packed.add(current);
+        }
+        return packed;
+    }
+
+    private void documentBatch(List<ClassInfo> batch, ClassDescriptions descriptions) {
+        batches.incrementAndGet();
+        try {
+            ClassDocumentationBatch answer = ollamaClient.generateJson(buildBatchPrompt(batch), this::parseBatch);
+            apply(batch, answer, descriptions);
+        } catch (JsonProcessingException e) {
+            failedBatches.incrementAndGet();
+            System.err.println("Invalid class documentation from Ollama: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            failedBatches.incrementAndGet();
+            System.err.println("Failed to document class batch: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parse a batch answer; an answer without any class entries is rejected so it is not cached
+     */
+    private ClassDocumentationBatch parseBatch(String json) throws IOException {
+        ClassDocumentationBatch answer = objectMapper.readValue(json, ClassDocumentationBatch.class);
+        if (answer.getClasses() == null || answer.getClasses().isEmpty()) {
+            throw new IOException("Class documentation from Ollama has no class entries");
+        }
+        return answer;
+    }
+
+    /**
+     * Map the answers back by ID; unknown IDs and empty descriptions are ignored
+     */
+    void apply(List<ClassInfo> batch, ClassDocumentationBatch answer, ClassDescriptions descriptions) {
+        if (answer.getClasses() == null) {
+            return;
+        }
+        for (ClassDocumentationBatch.ClassDocumentation item : answer.getClasses()) {
+            int classIndex = parseId(item.getId(), 'C');
+            if (classIndex < 0 || classIndex >= batch.size()) {
+                continue;
+            }
+            ClassInfo classInfo = batch.get(classIndex);
+            if (!isBlank(item.getDescription())) {
+                descriptions.setDescription(classInfo, item.getDescription().strip());
+                describedClasses.incrementAndGet();
+            }
+            if (includeMethods && item.getMethods() != null) {
+                item.getMethods().forEach((methodId, description) -> {
+                    int methodIndex = parseId(methodId, 'M');
+                    if (methodIndex >= 0 && methodIndex < classInfo.getMethods().size() && !isBlank(description)) {
+                        descriptions.setDescription(classInfo.getMethods().get(methodIndex), description.strip());
+                        describedMethods.incrementAndGet();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Zero-based index of an ID such as "C3" or "M1", or -1 if it is malformed
+     */
+    static int parseId(String id, char prefix) {
+        if (id == null || id.length() < 2 || Character.toUpperCase(id.charAt(0)) != prefix) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(id.substring(1).strip()) - 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.isBlank();
+    }
+
+    private String buildBatchPrompt(List<ClassInfo> batch) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Describe each of the following classes.\n\n");
+        for (int i = 0; i < batch.size(); i++) {
+            prompt.append(describeClass(batch.get(i), "C" + (i + 1))).append("\n");
+        }
+
+        prompt.append("Respond with a JSON object of the form ");
+        if (includeMethods) {
+            prompt.append("{\"classes\": [{\"id\": \"C1\", \"description\": \"...\", \"methods\": {\"M1\": \"...\"}}]} ");
+            prompt.append("with one entry per class ID. Describe what each class does (2-3 sentences) ");
+            prompt.append("and what each listed method does (1 sentence), using the method IDs as keys.");
+        } else {
+            prompt.append("{\"classes\": [{\"id\": \"C1\", \"description\": \"...\"}]} ");
+            prompt.append("with one entry per class ID. Describe what each class does (2-3 sentences).");
+        }
+        return prompt.toString();
+    }
+
+    /**
+     * Prompt block for one class, truncated so a single class never exceeds the batch budget
+     */
+    private String describeClass(ClassInfo classInfo, String id) {
+        StringBuilder block = new StringBuilder();
+        block.append("[").append(id).append("] Class: ").append(classInfo.getName()).append("\n");
+        if (classInfo.getPackageName() != null) {
+            block.append("Package: ").append(classInfo.getPackageName()).append("\n");
+        }
+        if (classInfo.isInterface()) {
+            block.append("Type: Interface\n");
+        } else if (classInfo.isAbstract()) {
+            block.append("Type: Abstract Class\n");
+        }
+        if (!classInfo.getSuperClasses().isEmpty()) {
+            block.append("Extends: ").append(String.join(", ", classInfo.getSuperClasses())).append("\n");
+        }
+        if (!classInfo.getInterfaces().isEmpty()) {
+            block.append("Implements: ").append(String.join(", ", classInfo.getInterfaces())).append("\n");
+        }
+        if (classInfo.getJavadoc() != null) {
+            block.append("Existing Documentation: ").append(classInfo.getJavadoc()).append("\n");
+        }
+
+        List<MethodInfo> methods = classInfo.getMethods();
+        if (!methods.isEmpty()) {
+            block.append("Methods:\n");
+            for (int i = 0; i < methods.size(); i++) {
+                MethodInfo method = methods.get(i);
+                block.append("  ");
+                if (includeMethods) {
+                    block.append("[M").append(i + 1).append("] ");
+                }
+                block.append(method.getReturnType() != null ? method.getReturnType() : "void")
+                    .append(" ").append(method.getName()).append("(")
+                    .append(method.getParameters().stream()
+                        .map(p -> p.getType() + " " + p.getName())
+                        .collect(Collectors.joining(", ")))
+                    .append(")\n");
+            }
+        }
+        return TokenEstimator.truncate(block.toString(), maxBatchTokens);
+    }
+
+    /**
+     * Batch counts and how many classes and methods were described
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("batches", batches.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("describedClasses", describedClasses.get());
+        stats.put("describedMethods", describedMethods.get());
+        return stats;
+    }
+}
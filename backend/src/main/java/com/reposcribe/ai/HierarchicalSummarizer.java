@@ -0,0 +1,277 @@
+package com.reposcribe.ai;
+
+import com.reposcribe.parser.model.ClassInfo;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Keeps the class inventory of a prompt within a token budget. Small projects
+ * are listed class by class as before. For larger ones each package is
+ * summarized by the model in parallel (map), and the summaries are summarized
+ * again in groups until they fit the budget (reduce). Every step has a
+ * deterministic prompt, so the intermediate summaries of an unchanged package
+ * are served from the response cache on the next run. Prompts that summarize
+ * the same inventory at the same time share one summarization.
+ */
+@Service
+public class HierarchicalSummarizer {
+
+    private static final String DEFAULT_PACKAGE = "(default package)";
+    // Room in the context window for the instructions around the inventory
+    private static final int PROMPT_RESERVE_TOKENS = 1000;
+
+    private final OllamaClient ollamaClient;
+    private final boolean enabled;
+    private final int maxInventoryTokens;
+    private final int parallelism;
+    // AI calls mostly wait on Ollama; the OllamaLimiter bounds how many actually run
+    private final ExecutorService summaryExecutor = Executors.newCachedThreadPool();
+
+    // Summarizations in progress by inventory listing, joined by concurrent callers
+    private final Map<String, CompletableFuture<String>> inProgress = new ConcurrentHashMap<>();
+
+    private final AtomicLong summarizedInventories = new AtomicLong();
+    private final AtomicLong sharedInventories = new AtomicLong();
+    private final AtomicLong summaryCalls = new AtomicLong();
+
+    public HierarchicalSummarizer(
+            OllamaClient ollamaClient,
+            @Value("${ai.summary.enabled:true}") boolean enabled,
+            @Value("${ai.summary.max-inventory-tokens:3000}") int maxInventoryTokens,
+            @Value("${ai.summary.parallelism:2}") int parallelism,
+            @Value("${ollama.context-tokens:0}") int contextTokens,
+            @Value("${ollama.max-tokens:4096}") int maxTokens) {
+        this.ollamaClient = ollamaClient;
+        this.enabled = enabled;
+        this.maxInventoryTokens = inventoryBudget(maxInventoryTokens, contextTokens, maxTokens);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * The configured inventory budget, lowered when a context window is set so
+     * that the inventory, the rest of the prompt and the answer fit in it
+     */
+    static int inventoryBudget(int configured, int contextTokens, int maxTokens) {
+        if (contextTokens <= 0) {
+            return configured;
+        }
+        int room = contextTokens - Math.max(0, maxTokens) - PROMPT_RESERVE_TOKENS;
+        return Math.min(configured, Math.max(contextTokens / 4, room));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        summaryExecutor.shutdownNow();
+    }
+
+    /**
+     * Describe the classes for a prompt: one line per class when that fits the
+     * budget, otherwise a summary per package or group of packages
+     * @param describe Formats the inventory line of a class, without trailing newline
+     * @param summarize Formats the line of a class sent to the package summaries.
+     *                  Prompts that pass the same function share their summaries.
+     */
+    public String describeClasses(
+            List<ClassInfo> classes,
+            Function<ClassInfo, String> describe,
+            Function<ClassInfo, String> summarize) throws IOException {
+        StringBuilder listing = new StringBuilder("Classes:\n");
+        classes.forEach(classInfo -> listing.append(describe.apply(classInfo)).append("\n"));
+        if (!enabled || TokenEstimator.estimate(listing) <= maxInventoryTokens) {
+            return listing.toString();
+        }
+
+        StringBuilder summaryListing = new StringBuilder();
+        classes.forEach(classInfo -> summaryListing.append(summarize.apply(classInfo)).append("\n"));
+        String key = summaryListing.toString();
+
+        CompletableFuture<String> inventory = new CompletableFuture<>();
+        CompletableFuture<String> running = inProgress.putIfAbsent(key, inventory);
+        if (running != null) {
+            sharedInventories.incrementAndGet();
+            return join(running);
+        }
+        try {
+            String summary = summarizeInventory(classes, summarize);
+            inventory.complete(summary);
+            return summary;
+        } catch (IOException | RuntimeException e) {
+            inventory.completeExceptionally(e);
+            throw e;
+        } finally {
+            inProgress.remove(key, inventory);
+        }
+    }
+
+    private String summarizeInventory(List<ClassInfo> classes, Function<ClassInfo, String> describe)
+            throws IOException {
+        summarizedInventories.incrementAndGet();
+        List<String> summaries = summarizePackages(classes, describe);
+        while (TokenEstimator.estimate(String.join("\n", summaries)) > maxInventoryTokens) {
+            List<String> reduced = combineSummaries(summaries);
+            if (reduced.size() >= summaries.size()) {
+                // Nothing left to merge; cut what remains to the budget
+                summaries = List.of(TokenEstimator.truncate(String.join("\n", summaries), maxInventoryTokens));
+                break;
+            }
+            summaries = reduced;
+        }
+
+        StringBuilder inventory = new StringBuilder("The project is too large to list every class. Summaries by package:\n");
+        summaries.forEach(summary -> inventory.append(summary).append("\n"));
+        return inventory.toString();
+    }
+
+    private static String join(CompletableFuture<String> running) throws IOException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while summarizing packages");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to summarize packages: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Map step: one summary per package, or per chunk of a package too large for one prompt
+     */
+    private List<String> summarizePackages(List<ClassInfo> classes, Function<ClassInfo, String> describe)
+            throws IOException {
+        Map<String, List<String>> linesByPackage = new TreeMap<>();
+        for (ClassInfo classInfo : classes) {
+            String packageName = classInfo.getPackageName() != null ? classInfo.getPackageName() : DEFAULT_PACKAGE;
+            linesByPackage.computeIfAbsent(packageName, p -> new ArrayList<>()).add(describe.apply(classInfo));
+        }
+
+        List<String> labels = new ArrayList<>();
+        List<String> prompts = new ArrayList<>();
+        linesByPackage.forEach((packageName, lines) -> {
+            List<String> chunks = chunk(lines);
+            for (int i = 0; i < chunks.size(); i++) {
+                String part = chunks.size() > 1 ? " part " + (i + 1) + "/" + chunks.size() : "";
+                labels.add("- " + packageName + part + " (" + lines.size() + " classes): ");
+                prompts.add("These are classes of the package " + packageName + part + ":\n"
+                    + chunks.get(i)
+                    + "\nSummarize what this package does as a whole (1-2 sentences).");
+            }
+        });
+
+        return generateAll(labels, prompts);
+    }
+
+    /**
+     * Reduce step: merge groups of summaries that together fit one prompt
+     */
+    private List<String> combineSummaries(List<String> summaries) throws IOException {
+        List<String> groups = chunk(summaries);
+        List<String> labels = new ArrayList<>();
+        List<String> prompts = new ArrayList<>();
+        for (String group : groups) {
+            labels.add("- ");
+            prompts.add("These are summaries of packages of one codebase:\n"
+                + group
+                + "\nCombine them into one summary naming the main packages and what they do (2-3 sentences).");
+        }
+        return generateAll(labels, prompts);
+    }
+
+    /**
+     * Split lines into newline-joined chunks that each fit the budget. A single
+     * line larger than the budget is truncated.
+     */
+    private List<String> chunk(List<String> lines) {
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : lines) {
+            String fitted = TokenEstimator.truncate(line, maxInventoryTokens);
+            if (current.length() > 0
+                    && TokenEstimator.estimate(current) + TokenEstimator.estimate(fitted) + 1 > maxInventoryTokens) {
+                chunks.add(current.toString());
+                current.setLength(0);
+            }
+            current.append(fitted).append("\n");
+        }
+        if (current.length() > 0) {
+            chunks.add(current.toString());
+        }
+        return chunks;
+    }
+
+    /**
+     * Run the prompts concurrently and prefix each answer with its label. At most
+     * ai.summary.parallelism calls are outstanding at once; the OllamaLimiter
+     * decides when each of them runs.
+     */
+    private List<String> generateAll(List<String> labels, List<String> prompts) throws IOException {
+        String user = OllamaLimiter.getCurrentUser();
+        Semaphore window = new Semaphore(parallelism);
+        List<Future<String>> answers = new ArrayList<>(prompts.size());
+        List<String> summaries = new ArrayList<>(prompts.size());
+        try {
+            for (String prompt : prompts) {
+                window.acquire();
+                answers.add(summaryExecutor.submit(() -> {
+                    OllamaLimiter.setCurrentUser(user);
+                    try {
+                        summaryCalls.incrementAndGet();
+                        return ollamaClient.generate(prompt);
+                    } finally {
+                        OllamaLimiter.setCurrentUser(null);
+                        window.release();
+                    }
+                }));
+            }
+
+            for (int i = 0; i < answers.size(); i++) {
+                String answer = answers.get(i).get().strip().replaceAll("\\s*\\n\\s*", " ");
+                summaries.add(labels.get(i) + answer);
+            }
+        } catch (InterruptedException e) {
+            answers.forEach(answer -> answer.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while summarizing packages");
+        } catch (ExecutionException e) {
+            answers.forEach(answer -> answer.cancel(true));
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to summarize packages: " + e.getCause().getMessage(), e.getCause());
+        }
+        return summaries;
+    }
+
+    /**
+     * How often inventories had to be summarized and how many model calls that took
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxInventoryTokens", maxInventoryTokens);
+        stats.put("summarizedInventories", summarizedInventories.get());
+        stats.put("sharedInventories", sharedInventories.get());
+        stats.put("summaryCalls", summaryCalls.get());
+        return stats;
+    }
+}
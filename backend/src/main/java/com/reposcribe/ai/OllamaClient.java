@@ -2,33 +2,57 @@ package com.reposcribe.ai;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.reposcribe.ai.dto.OllamaRequest;
+import com.reposcribe.ai.cache.ResponseCache;
 import com.reposcribe.ai.dto.OllamaResponse;
 import okhttp3.*;
+import okio.BufferedSource;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 public class OllamaClient {
 
+    private static final String UNAVAILABLE_MESSAGE = "Ollama service is not available. Make sure Ollama is running.";
+
     private final String baseUrl;
     private final String defaultModel;
+    private final int contextTokens;
+    private final int maxTokens;
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final OllamaHealth health;
+    private final OllamaLimiter limiter;
+    private final ResponseCache responseCache;
 
     public OllamaClient(
             @Value("${ollama.base-url:http://localhost:11434}") String baseUrl,
-            @Value("${ollama.model:llama3}") String defaultModel) {
+            @Value("${ollama.model:llama3}") String defaultModel,
+            @Value("${ollama.timeout:120000}") long timeoutMillis,
+            @Value("${ollama.context-tokens:0}") int contextTokens,
+            @Value("${ollama.max-tokens:4096}") int maxTokens,
+            OllamaHealth health,
+            OllamaLimiter limiter,
+            ResponseCache responseCache) {
         this.baseUrl = baseUrl;
         this.defaultModel = defaultModel;
+        this.contextTokens = contextTokens;
+        this.maxTokens = maxTokens;
+        this.health = health;
+        this.limiter = limiter;
+        this.responseCache = responseCache;
         this.objectMapper = new ObjectMapper();
         
         this.httpClient = new OkHttpClient.Builder()
             .connectTimeout(30, TimeUnit.SECONDS)
-            .readTimeout(120, TimeUnit.SECONDS)
-            .writeTimeout(120, TimeUnit.SECONDS)
+            .readTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+            .writeTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
             .build();
     }
 
@@ -37,22 +61,53 @@ public class OllamaClient {
     }
 
     public String generate(String model, String prompt) throws IOException {
-        if (!isAvailable()) {
-            throw new IOException("Ollama service is not available. Make sure Ollama is running.");
+        return generate(newRequest(model, prompt));
+    }
+
+    /**
+     * Generate a response constrained to valid JSON (format=json) and parse it.
+     * Only answers the parser accepts are cached, so a malformed answer is
+     * requested again on the next call instead of being replayed from the cache.
+     */
+    public <T> T generateJson(String prompt, ResponseParser<T> parser) throws IOException {
+        OllamaRequest request = newRequest(defaultModel, prompt);
+        request.setFormat("json");
+
+        String cacheKey = cacheKey(request);
+        String cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            try {
+                return parser.parse(cached);
+            } catch (IOException e) {
+                responseCache.remove(cacheKey);
+            }
         }
-        
-        OllamaRequest request = new OllamaRequest(model, prompt);
-        String url = baseUrl + "/api/generate";
-        
-        String json = objectMapper.writeValueAsString(request);
-        RequestBody body = RequestBody.create(json, MediaType.get("application/json"));
-        
-        Request httpRequest = new Request.Builder()
-            .url(url)
-            .post(body)
-            .build();
 
-        try (Response response = httpClient.newCall(httpRequest).execute()) {
+        String response = call(request);
+        T parsed = parser.parse(response);
+        responseCache.put(cacheKey, response);
+        return parsed;
+    }
+
+    private String generate(OllamaRequest request) throws IOException {
+        String cacheKey = cacheKey(request);
+        String cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        String response = call(request);
+        responseCache.put(cacheKey, response);
+        return response;
+    }
+
+    /**
+     * Send a non-streaming request, bypassing the response cache
+     */
+    private String call(OllamaRequest request) throws IOException {
+        failIfUnavailable();
+        try (OllamaLimiter.Permit permit = limiter.acquire();
+             Response response = execute(request)) {
             if (!response.isSuccessful()) {
                 throw new IOException("Ollama API error: " + response.code());
             }
@@ -68,7 +123,185 @@ public class OllamaClient {
         }
     }
 
+    public String generateStream(String prompt, Consumer<String> onToken) throws IOException {
+        return generateStream(defaultModel, prompt, onToken);
+    }
+
+    /**
+     * Generate with stream=true, handing each token to the callback as soon as
+     * Ollama emits it. Ollama answers with one JSON object per line (NDJSON);
+     * the last one has done=true. A stream that ends without it was cut off and
+     * fails instead of returning, or caching, the partial text. A cached response
+     * is handed over as a single token.
+     * @param onToken Called on the calling thread for every non-empty chunk
+     * @return The complete response text
+     */
+    public String generateStream(String model, String prompt, Consumer<String> onToken) throws IOException {
+        OllamaRequest request = newRequest(model, prompt);
+        request.setStream(true);
+
+        String cacheKey = cacheKey(request);
+        String cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            onToken.accept(cached);
+            return cached;
+        }
+
+        failIfUnavailable();
+        try (OllamaLimiter.Permit permit = limiter.acquire();
+             Response response = execute(request)) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Ollama API error: " + response.code());
+            }
+
+            StringBuilder text = new StringBuilder();
+            BufferedSource source = response.body().source();
+            boolean done = false;
+            String line;
+            while (!done && (line = readLine(source)) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                OllamaResponse chunk = objectMapper.readValue(line, OllamaResponse.class);
+                if (chunk.getError() != null) {
+                    throw new IOException("Ollama API error: " + chunk.getError());
+                }
+                if (chunk.getResponse() != null && !chunk.getResponse().isEmpty()) {
+                    text.append(chunk.getResponse());
+                    onToken.accept(chunk.getResponse());
+                }
+                done = chunk.isDone();
+            }
+
+            if (!done) {
+                health.recordFailure();
+                throw new IOException("Ollama stream ended before the response was complete");
+            }
+            if (text.length() == 0) {
+                throw new IOException("Empty response from Ollama");
+            }
+
+            responseCache.put(cacheKey, text.toString());
+            return text.toString();
+        }
+    }
+
+    /**
+     * Build a request, setting the context window (num_ctx) and the answer
+     * length limit (num_predict) only when ollama.context-tokens and
+     * ollama.max-tokens are configured; otherwise the model defaults apply
+     */
+    OllamaRequest newRequest(String model, String prompt) {
+        OllamaRequest request = new OllamaRequest(model, prompt);
+        Map<String, Object> options = new HashMap<>();
+        if (contextTokens > 0) {
+            options.put("num_ctx", contextTokens);
+        }
+        if (maxTokens > 0) {
+            options.put("num_predict", maxTokens);
+        }
+        if (!options.isEmpty()) {
+            request.setOptions(options);
+        }
+        return request;
+    }
+
+    private static String cacheKey(OllamaRequest request) {
+        return ResponseCache.key(request.getModel(), request.getFormat(), request.getOptions(), request.getPrompt());
+    }
+
+    /**
+     * Fail fast while the circuit is open instead of queueing for a slot first
+     */
+    private void failIfUnavailable() throws IOException {
+        if (health.isRejecting()) {
+            throw new IOException(UNAVAILABLE_MESSAGE);
+        }
+    }
+
+    /**
+     * Send a generate request through the circuit breaker. Connection failures and
+     * server errors count against Ollama's health; any other answer proves it is up.
+     */
+    private Response execute(OllamaRequest request) throws IOException {
+        if (!health.allowRequest()) {
+            throw new IOException(UNAVAILABLE_MESSAGE);
+        }
+
+        Response response;
+        try {
+            response = httpClient.newCall(buildGenerateRequest(request)).execute();
+        } catch (IOException e) {
+            health.recordFailure();
+            throw e;
+        }
+
+        if (response.code() >= 500) {
+            health.recordFailure();
+        } else {
+            health.recordSuccess();
+        }
+        return response;
+    }
+
+    /**
+     * Read the next NDJSON line; a stalled, dropped or reset stream counts as a failure
+     */
+    private String readLine(BufferedSource source) throws IOException {
+        try {
+            return source.readUtf8Line();
+        } catch (IOException e) {
+            health.recordFailure();
+            throw e;
+        }
+    }
+
+    private Request buildGenerateRequest(OllamaRequest request) throws IOException {
+        String url = baseUrl + "/api/generate";
+
+        String json = objectMapper.writeValueAsString(request);
+        RequestBody body = RequestBody.create(json, MediaType.get("application/json"));
+
+        return new Request.Builder()
+            .url(url)
+            .post(body)
+            .build();
+    }
+
+    /**
+     * Last known availability from the circuit breaker; does not contact the server
+     */
     public boolean isAvailable() {
+        return health.isAvailable();
+    }
+
+    /**
+     * Probe /api/tags in the background so the breaker notices outages and
+     * recoveries without a request paying for the round trip
+     */
+    @Scheduled(fixedDelayString = "${ollama.health.probe-interval-ms:15000}")
+    public void probe() {
+        if (ping()) {
+            health.recordSuccess();
+        } else {
+            health.recordFailure();
+        }
+    }
+
+    public Map<String, Object> getHealthStatistics() {
+        return health.getStatistics();
+    }
+
+    public Map<String, Object> getLimiterStatistics() {
+        return limiter.getStatistics();
+    }
+
+    public Map<String, Object> getCacheStatistics() {
+        return responseCache.getStatistics();
+    }
+
+    private boolean ping() {
         try {
             String url = baseUrl + "/api/tags";
             Request request = new Request.Builder()
@@ -87,5 +320,13 @@ public class OllamaClient {
     public String getDefaultModel() {
         return defaultModel;
     }
+
+    /**
+     * Turns a model answer into a result; throws if the answer is unusable
+     */
+    @FunctionalInterface
+    public interface ResponseParser<T> {
+        T parse(String response) throws IOException;
+    }
 }
 
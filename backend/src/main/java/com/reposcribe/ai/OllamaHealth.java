@@ -0,0 +1,138 @@
+package com.reposcribe.ai;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker over the Ollama server, fed by the outcome of real calls and
+ * of the periodic probe in {@link OllamaClient}. After enough consecutive
+ * failures the circuit opens and calls fail fast; once the cool-down has
+ * passed a single trial call is let through (half-open) and its outcome
+ * closes or re-opens the circuit.
+ */
+@Service
+public class OllamaHealth {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    private long successes;
+    private long failures;
+    private long rejected;
+    private long timesOpened;
+    private long lastCheckedAt;
+
+    public OllamaHealth(
+            @Value("${ollama.health.failure-threshold:3}") int failureThreshold,
+            @Value("${ollama.health.open-ms:30000}") long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Whether a call may go to Ollama now. While half-open only one trial call is allowed.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (!trialInFlight) {
+                    trialInFlight = true;
+                    return true;
+                }
+                rejected++;
+                return false;
+            default:
+                rejected++;
+                return false;
+        }
+    }
+
+    /**
+     * Whether a call would currently be refused, without claiming the half-open
+     * trial. Lets callers fail fast before they wait for a generation slot.
+     */
+    public synchronized boolean isRejecting() {
+        boolean rejecting = state == State.OPEN
+            ? System.currentTimeMillis() - openedAt < openMillis
+            : state == State.HALF_OPEN && trialInFlight;
+        if (rejecting) {
+            rejected++;
+        }
+        return rejecting;
+    }
+
+    /**
+     * Ollama answered; close the circuit
+     */
+    public synchronized void recordSuccess() {
+        successes++;
+        lastCheckedAt = System.currentTimeMillis();
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Ollama could not be reached or failed; open the circuit once the threshold is hit
+     */
+    public synchronized void recordFailure() {
+        failures++;
+        lastCheckedAt = System.currentTimeMillis();
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                timesOpened++;
+            }
+            state = State.OPEN;
+            openedAt = lastCheckedAt;
+        }
+    }
+
+    /**
+     * Last known availability, without contacting the server
+     */
+    public synchronized boolean isAvailable() {
+        return state != State.OPEN;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Breaker state and call counters
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("state", state);
+        stats.put("consecutiveFailures", consecutiveFailures);
+        stats.put("successes", successes);
+        stats.put("failures", failures);
+        stats.put("rejected", rejected);
+        stats.put("timesOpened", timesOpened);
+        stats.put("lastCheckedAt", lastCheckedAt);
+        return stats;
+    }
+}
@@ -0,0 +1,278 @@
+package com.reposcribe.ai;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control in front of Ollama. At most max-in-flight generations run
+ * at once, and at most per-user of them for one user; further calls wait in
+ * per-user queues that are served round-robin, so one session cannot starve
+ * the others. A call is rejected up front when the queue is full or the
+ * expected wait exceeds the deadline, and it gives up if it is not admitted
+ * in time. The user is taken from the calling thread, see {@link #setCurrentUser}.
+ */
+@Service
+public class OllamaLimiter {
+
+    private static final String ANONYMOUS = "anonymous";
+    private static final ThreadLocal<String> CURRENT_USER = new ThreadLocal<>();
+    // Weight of the latest call in the moving average of generation time
+    private static final double SERVICE_TIME_WEIGHT = 0.2;
+
+    private final int maxInFlight;
+    private final int queueCapacity;
+    private final int perUserLimit;
+    private final long maxWaitMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition admitted = lock.newCondition();
+    private final LinkedHashMap<String, Deque<Ticket>> waiting = new LinkedHashMap<>();
+    private final Map<String, Integer> runningPerUser = new HashMap<>();
+    private int inFlight;
+    private int queued;
+
+    private long admittedCalls;
+    private long rejectedQueueFull;
+    private long rejectedDeadline;
+    private long timedOut;
+    private long totalQueueMillis;
+    private long maxQueueMillis;
+    private double averageServiceMillis;
+
+    public OllamaLimiter(
+            @Value("${ollama.limiter.max-in-flight:2}") int maxInFlight,
+            @Value("${ollama.limiter.queue-capacity:32}") int queueCapacity,
+            @Value("${ollama.limiter.per-user:4}") int perUserLimit,
+            @Value("${ollama.limiter.max-wait-ms:60000}") long maxWaitMillis) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.queueCapacity = queueCapacity;
+        this.perUserLimit = perUserLimit;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Attribute Ollama calls made by this thread to a user, usually a session ID.
+     * Pass null to clear.
+     */
+    public static void setCurrentUser(String user) {
+        if (user == null) {
+            CURRENT_USER.remove();
+        } else {
+            CURRENT_USER.set(user);
+        }
+    }
+
+    public static String getCurrentUser() {
+        String user = CURRENT_USER.get();
+        return user != null ? user : ANONYMOUS;
+    }
+
+    /**
+     * Wait for a generation slot for the current user.
+     * The returned permit must be closed when the call has finished.
+     * @throws IOException if the call is rejected or not admitted before its deadline
+     */
+    public Permit acquire() throws IOException {
+        String user = getCurrentUser();
+        long start = System.nanoTime();
+
+        lock.lock();
+        try {
+            if (inFlight < maxInFlight && queued == 0 && !atUserLimit(user)) {
+                return admit(user, start);
+            }
+
+            if (queued >= queueCapacity) {
+                rejectedQueueFull++;
+                throw new IOException("AI service is busy, try again later");
+            }
+            if (maxWaitMillis > 0 && estimatedWaitMillis(queued + 1) > maxWaitMillis) {
+                rejectedDeadline++;
+                throw new IOException("AI service is busy, try again later");
+            }
+
+            Ticket ticket = new Ticket();
+            waiting.computeIfAbsent(user, u -> new ArrayDeque<>()).addLast(ticket);
+            queued++;
+            // Slots can be free while every queued call belongs to a user at the limit
+            dispatch();
+
+            long remaining = maxWaitMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(maxWaitMillis) : Long.MAX_VALUE;
+            try {
+                while (!ticket.admitted) {
+                    if (remaining <= 0) {
+                        dequeue(user, ticket);
+                        timedOut++;
+                        throw new IOException("Timed out waiting for the AI service");
+                    }
+                    remaining = admitted.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (ticket.admitted) {
+                    release(user, start, System.nanoTime());
+                } else {
+                    dequeue(user, ticket);
+                }
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the AI service");
+            }
+
+            recordQueueTime(start);
+            return new Permit(user, System.nanoTime());
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit admit(String user, long start) {
+        inFlight++;
+        runningPerUser.merge(user, 1, Integer::sum);
+        recordQueueTime(start);
+        return new Permit(user, System.nanoTime());
+    }
+
+    private void recordQueueTime(long start) {
+        long queueMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        admittedCalls++;
+        totalQueueMillis += queueMillis;
+        maxQueueMillis = Math.max(maxQueueMillis, queueMillis);
+    }
+
+    /**
+     * Expected wait for a call at the given queue position, from the average generation time
+     */
+    private long estimatedWaitMillis(int position) {
+        return (long) (averageServiceMillis * Math.ceil((double) position / maxInFlight));
+    }
+
+    private void dequeue(String user, Ticket ticket) {
+        Deque<Ticket> tickets = waiting.get(user);
+        if (tickets != null && tickets.remove(ticket)) {
+            queued--;
+            if (tickets.isEmpty()) {
+                waiting.remove(user);
+            }
+        }
+    }
+
+    private void release(String user, long admittedAt, long finishedAt) {
+        lock.lock();
+        try {
+            inFlight--;
+            runningPerUser.computeIfPresent(user, (u, calls) -> calls > 1 ? calls - 1 : null);
+
+            double serviceMillis = TimeUnit.NANOSECONDS.toMillis(finishedAt - admittedAt);
+            averageServiceMillis = averageServiceMillis == 0
+                ? serviceMillis
+                : averageServiceMillis + SERVICE_TIME_WEIGHT * (serviceMillis - averageServiceMillis);
+
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hand free slots to waiting calls, taking one call per user in turn and
+     * skipping users that already run per-user calls
+     */
+    private void dispatch() {
+        boolean signalled = false;
+        boolean admittedAny = true;
+        while (inFlight < maxInFlight && admittedAny) {
+            admittedAny = false;
+            for (String user : new ArrayList<>(waiting.keySet())) {
+                if (inFlight >= maxInFlight) {
+                    break;
+                }
+                if (atUserLimit(user)) {
+                    continue;
+                }
+
+                Deque<Ticket> tickets = waiting.remove(user);
+                Ticket ticket = tickets.pollFirst();
+                if (!tickets.isEmpty()) {
+                    // Move the user to the back of the rotation
+                    waiting.put(user, tickets);
+                }
+
+                ticket.admitted = true;
+                queued--;
+                inFlight++;
+                runningPerUser.merge(user, 1, Integer::sum);
+                admittedAny = true;
+                signalled = true;
+            }
+        }
+        if (signalled) {
+            admitted.signalAll();
+        }
+    }
+
+    private boolean atUserLimit(String user) {
+        return perUserLimit > 0 && runningPerUser.getOrDefault(user, 0) >= perUserLimit;
+    }
+
+    /**
+     * Slots, queue length, queue times and rejection counters
+     */
+    public Map<String, Object> getStatistics() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("maxInFlight", maxInFlight);
+            stats.put("perUserLimit", perUserLimit);
+            stats.put("inFlight", inFlight);
+            stats.put("queued", queued);
+            stats.put("admitted", admittedCalls);
+            stats.put("rejectedQueueFull", rejectedQueueFull);
+            stats.put("rejectedDeadline", rejectedDeadline);
+            stats.put("timedOut", timedOut);
+            stats.put("averageQueueMillis", admittedCalls > 0 ? totalQueueMillis / admittedCalls : 0);
+            stats.put("maxQueueMillis", maxQueueMillis);
+            stats.put("averageServiceMillis", (long) averageServiceMillis);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Ticket {
+        private boolean admitted;
+    }
+
+    /**
+     * A generation slot; closing it admits the next waiting call
+     */
+    public final class Permit implements AutoCloseable {
+        private final String user;
+        private final long admittedAt;
+        private boolean released;
+
+        private Permit(String user, long admittedAt) {
+            this.user = user;
+            this.admittedAt = admittedAt;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(user, admittedAt, System.nanoTime());
+            }
+        }
+    }
+}
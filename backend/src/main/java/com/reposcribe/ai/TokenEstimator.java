@@ -0,0 +1,29 @@
+package com.reposcribe.ai;
+
+/**
+ * Rough token counts for prompt budgeting. Model tokenizers average about four
+ * characters of English or code per token, which is close enough to keep
+ * prompts inside the context window without loading a tokenizer.
+ */
+public final class TokenEstimator {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private TokenEstimator() {
+    }
+
+    /**
+     * Estimated number of tokens in the text
+     */
+    public static int estimate(CharSequence text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    /**
+     * Cut the text so that it fits the given number of tokens
+     */
+    public static String truncate(String text, int maxTokens) {
+        int maxChars = Math.max(0, maxTokens) * CHARS_PER_TOKEN;
+        return text.length() <= maxChars ? text : text.substring(0, maxChars);
+    }
+}
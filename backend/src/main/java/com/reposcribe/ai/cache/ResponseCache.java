@@ -0,0 +1,347 @@
+package com.reposcribe.ai.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cache of model responses keyed by the SHA-256 of the model, its options and
+ * the normalized prompt. Re-analyzing an unchanged repository produces the
+ * same prompts, so repeat documentation is served without calling the model.
+ * The in-memory tier is bounded by response size and evicted
+ * least-recently-used; the optional disk tier survives restarts and is
+ * trimmed oldest-first. Entries older than the TTL are ignored in both tiers.
+ */
+@Service
+public class ResponseCache {
+
+    private static final String FILE_SUFFIX = ".txt";
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long ttlMillis;
+    private final boolean diskEnabled;
+    private final Path diskDirectory;
+    private final long diskMaxBytes;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long currentBytes;
+    private final Object diskLock = new Object();
+    private long diskBytes = -1;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    public ResponseCache(
+            @Value("${ai.cache.enabled:true}") boolean enabled,
+            @Value("${ai.cache.max-bytes:16777216}") long maxBytes,
+            @Value("${ai.cache.ttl-minutes:1440}") long ttlMinutes,
+            @Value("${ai.cache.disk.enabled:false}") boolean diskEnabled,
+            @Value("${ai.cache.disk.dir:${java.io.tmpdir}/reposcribe-ai-cache}") String diskDirectory,
+            @Value("${ai.cache.disk.max-bytes:268435456}") long diskMaxBytes) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMinutes * 60_000;
+        this.diskEnabled = diskEnabled;
+        this.diskDirectory = Paths.get(diskDirectory);
+        this.diskMaxBytes = diskMaxBytes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Build the cache key for a prompt sent to a model with the given response format and options
+     */
+    public static String key(String model, String format, Map<String, Object> options, String prompt) {
+        String optionsKey = options == null ? "" : new TreeMap<>(options).toString();
+        String material = model + "\n" + (format == null ? "" : format) + "\n" + optionsKey + "\n"
+            + normalizePrompt(prompt);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Line endings and trailing whitespace do not change what the model is asked
+     */
+    static String normalizePrompt(String prompt) {
+        StringBuilder normalized = new StringBuilder(prompt.length());
+        for (String line : prompt.strip().split("\r?\n|\r")) {
+            normalized.append(line.stripTrailing()).append('\n');
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Look up a response, falling back to the disk tier on a memory miss
+     */
+    public String get(String key) {
+        if (!enabled) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (!isExpired(entry.createdAt, now)) {
+                    hits.incrementAndGet();
+                    return entry.response;
+                }
+                entries.remove(key);
+                currentBytes -= entry.weight;
+                expirations.incrementAndGet();
+            }
+        }
+
+        Entry stored = readFromDisk(key, now);
+        if (stored != null) {
+            diskHits.incrementAndGet();
+            // Keep the original write time so the TTL is not extended by the promotion
+            putInMemory(key, stored.response, stored.createdAt);
+            return stored.response;
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Store a response in memory and, when enabled, on disk
+     */
+    public void put(String key, String response) {
+        if (!enabled || response == null || response.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        putInMemory(key, response, now);
+        writeToDisk(key, response);
+    }
+
+    /**
+     * Drop a response from both tiers, e.g. when it turned out to be unusable
+     */
+    public void remove(String key) {
+        synchronized (this) {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                currentBytes -= entry.weight;
+            }
+        }
+        if (diskEnabled) {
+            Path file = diskDirectory.resolve(key + FILE_SUFFIX);
+            long size = sizeOf(file);
+            deleteFromDisk(file);
+            synchronized (diskLock) {
+                if (diskBytes >= 0) {
+                    diskBytes = Math.max(0, diskBytes - size);
+                }
+            }
+        }
+    }
+
+    private void putInMemory(String key, String response, long createdAt) {
+        long weight = (long) response.length() * Character.BYTES;
+        if (weight > maxBytes) {
+            return;
+        }
+
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(response, weight, createdAt));
+            if (previous != null) {
+                currentBytes -= previous.weight;
+            }
+            currentBytes += weight;
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && eldest.hasNext()) {
+                currentBytes -= eldest.next().getValue().weight;
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean isExpired(long createdAt, long now) {
+        return ttlMillis > 0 && now - createdAt > ttlMillis;
+    }
+
+    private Entry readFromDisk(String key, long now) {
+        if (!diskEnabled) {
+            return null;
+        }
+
+        Path file = diskDirectory.resolve(key + FILE_SUFFIX);
+        try {
+            long writtenAt = Files.getLastModifiedTime(file).toMillis();
+            if (isExpired(writtenAt, now)) {
+                deleteFromDisk(file);
+                expirations.incrementAndGet();
+                return null;
+            }
+            String response = Files.readString(file, StandardCharsets.UTF_8);
+            return new Entry(response, 0, writtenAt);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Failed to read cached AI response " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, String response) {
+        if (!diskEnabled) {
+            return;
+        }
+
+        Path file = diskDirectory.resolve(key + FILE_SUFFIX);
+        byte[] content = response.getBytes(StandardCharsets.UTF_8);
+        try {
+            Files.createDirectories(diskDirectory);
+            // Write under a temporary name so readers never see a partial response
+            Path temp = Files.createTempFile(diskDirectory, key, ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            synchronized (diskLock) {
+                if (diskBytes < 0) {
+                    diskBytes = diskUsage();
+                } else {
+                    diskBytes += content.length;
+                }
+                if (diskBytes > diskMaxBytes) {
+                    trimDisk();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to cache AI response on disk: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the oldest responses until the disk tier fits its budget
+     */
+    private void trimDisk() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(diskDirectory)) {
+            listing.filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX)).forEach(files::add);
+        }
+        files.sort(Comparator.comparing(ResponseCache::lastModified));
+
+        long total = 0;
+        for (Path file : files) {
+            total += sizeOf(file);
+        }
+        for (Path file : files) {
+            if (total <= diskMaxBytes) {
+                break;
+            }
+            total -= sizeOf(file);
+            deleteFromDisk(file);
+            evictions.incrementAndGet();
+        }
+        diskBytes = total;
+    }
+
+    private long diskUsage() throws IOException {
+        try (Stream<Path> listing = Files.list(diskDirectory)) {
+            return listing.filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX))
+                .mapToLong(ResponseCache::sizeOf)
+                .sum();
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void deleteFromDisk(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Ignore cleanup errors
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    /**
+     * Hit/miss counters and current occupancy
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        long hitCount = hits.get() + diskHits.get();
+        long missCount = misses.get();
+        stats.put("enabled", enabled);
+        stats.put("hits", hits.get());
+        stats.put("diskHits", diskHits.get());
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        synchronized (this) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", currentBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("diskEnabled", diskEnabled);
+        return stats;
+    }
+
+    private static final class Entry {
+        private final String response;
+        private final long weight;
+        private final long createdAt;
+
+        private Entry(String response, long weight, long createdAt) {
+            this.response = response;
+            this.weight = weight;
+            this.createdAt = createdAt;
+        }
+    }
+}
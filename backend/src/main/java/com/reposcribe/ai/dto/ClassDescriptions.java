@@ -0,0 +1,34 @@
+package com.reposcribe.ai.dto;
+
+import com.reposcribe.parser.model.ClassInfo;
+import com.reposcribe.parser.model.MethodInfo;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * AI descriptions of classes and methods written during one documentation run.
+ * They are kept apart from the parsed classes, which are shared by every run
+ * on a session, and are looked up by object identity.
+ */
+public class ClassDescriptions {
+    private final Map<ClassInfo, String> classes = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final Map<MethodInfo, String> methods = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    public String getDescription(ClassInfo classInfo) {
+        return classes.get(classInfo);
+    }
+
+    public void setDescription(ClassInfo classInfo, String description) {
+        classes.put(classInfo, description);
+    }
+
+    public String getDescription(MethodInfo method) {
+        return methods.get(method);
+    }
+
+    public void setDescription(MethodInfo method, String description) {
+        methods.put(method, description);
+    }
+}
@@ -0,0 +1,55 @@
+package com.reposcribe.ai.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-class descriptions returned for one batched class documentation request
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ClassDocumentationBatch {
+    private List<ClassDocumentation> classes = new ArrayList<>();
+
+    public List<ClassDocumentation> getClasses() {
+        return classes;
+    }
+
+    public void setClasses(List<ClassDocumentation> classes) {
+        this.classes = classes;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ClassDocumentation {
+        private String id;
+        private String description;
+        // Method descriptions keyed by the method IDs given in the prompt
+        private Map<String, String> methods;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+
+        public Map<String, String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(Map<String, String> methods) {
+            this.methods = methods;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.reposcribe.ai.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 import java.util.Map;
 
@@ -9,6 +11,9 @@ public class OllamaRequest {
     private List<String> context;
     private boolean stream;
     private Map<String, Object> options;
+    // "json" constrains the model to answer with valid JSON
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String format;
 
     public OllamaRequest() {
         this.stream = false;
@@ -59,5 +64,13 @@ public class OllamaRequest {
     public void setOptions(Map<String, Object> options) {
         this.options = options;
     }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
 }
 
@@ -1,10 +1,16 @@
 package com.reposcribe.ai.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class OllamaResponse {
     private String model;
     private String response;
     private boolean done;
+    @JsonProperty("total_duration")
     private Long totalDuration;
+    private String error;
 
     public String getModel() {
         return model;
@@ -37,5 +43,13 @@ public class OllamaResponse {
     public void setTotalDuration(Long totalDuration) {
         this.totalDuration = totalDuration;
     }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
 }
 
@@ -0,0 +1,28 @@
+package com.reposcribe.ai.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Overview and architecture sections returned together by a combined analysis request
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProjectAnalysis {
+    private String overview;
+    private String architecture;
+
+    public String getOverview() {
+        return overview;
+    }
+
+    public void setOverview(String overview) {
+        this.overview = overview;
+    }
+
+    public String getArchitecture() {
+        return architecture;
+    }
+
+    public void setArchitecture(String architecture) {
+        this.architecture = architecture;
+    }
+}
@@ -1,8 +1,11 @@
 package com.reposcribe.controller;
 
 import com.reposcribe.ai.AIService;
+import com.reposcribe.ai.OllamaLimiter;
 import com.reposcribe.parser.UnifiedParserService;
 import com.reposcribe.parser.model.ClassInfo;
+import com.reposcribe.parser.model.DirectoryAnalysis;
+import com.reposcribe.service.SessionAnalysisService;
 import com.reposcribe.service.SessionService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,7 +16,6 @@ import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/analysis")
@@ -22,14 +24,17 @@ public class AnalysisController {
     private final UnifiedParserService parserService;
     private final AIService aiService;
     private final SessionService sessionService;
+    private final SessionAnalysisService sessionAnalysisService;
 
     public AnalysisController(
             UnifiedParserService parserService,
             AIService aiService,
-            SessionService sessionService) {
+            SessionService sessionService,
+            SessionAnalysisService sessionAnalysisService) {
         this.parserService = parserService;
         this.aiService = aiService;
         this.sessionService = sessionService;
+        this.sessionAnalysisService = sessionAnalysisService;
     }
 
     @PostMapping("/analyze-project")
@@ -58,16 +63,20 @@ public class AnalysisController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            Map<String, List<ClassInfo>> parsedResults = parserService.parseDirectory(sessionPath);
-            List<ClassInfo> allClasses = parsedResults.values().stream()
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
+            DirectoryAnalysis analysis = sessionAnalysisService.analyzeSession(sessionId);
+            List<ClassInfo> allClasses = analysis.getAllClasses();
 
-            String overview = aiService.generateProjectOverview(allClasses);
+            String overview;
+            OllamaLimiter.setCurrentUser(sessionId);
+            try {
+                overview = aiService.generateProjectOverview(allClasses);
+            } finally {
+                OllamaLimiter.setCurrentUser(null);
+            }
 
             response.put("success", true);
-            response.put("statistics", parserService.getDirectoryStatistics(sessionPath));
-            response.put("parsedClasses", parsedResults);
+            response.put("statistics", analysis.getStatistics());
+            response.put("parsedClasses", analysis.getParsedClasses());
             response.put("overview", overview);
 
             return ResponseEntity.ok(response);
@@ -83,6 +92,12 @@ public class AnalysisController {
     public ResponseEntity<Map<String, Object>> health() {
         Map<String, Object> response = new HashMap<>();
         response.put("aiAvailable", aiService.isAvailable());
+        response.put("aiHealth", aiService.getHealthStatistics());
+        response.put("aiLimiter", aiService.getLimiterStatistics());
+        response.put("aiCache", aiService.getCacheStatistics());
+        response.put("aiSummary", aiService.getSummaryStatistics());
+        response.put("parseCache", parserService.getCacheStatistics());
+        response.put("parseIndex", parserService.getIndexStatistics());
         return ResponseEntity.ok(response);
     }
 }
@@ -1,24 +1,40 @@
 package com.reposcribe.controller;
 
+import com.reposcribe.ai.OllamaLimiter;
 import com.reposcribe.generator.DocumentationGeneratorService;
+import com.reposcribe.generator.DocumentationJobService;
+import com.reposcribe.generator.DocumentationListener;
 import com.reposcribe.generator.model.DocumentationProgress;
+import com.reposcribe.generator.model.ReadmeSection;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/documentation")
 public class DocumentationController {
 
     private final DocumentationGeneratorService docGeneratorService;
+    private final DocumentationJobService jobService;
+    private final long sseTimeoutMillis;
 
-    public DocumentationController(DocumentationGeneratorService docGeneratorService) {
+    public DocumentationController(
+            DocumentationGeneratorService docGeneratorService,
+            DocumentationJobService jobService,
+            @Value("${documentation.sse.timeout-ms:600000}") long sseTimeoutMillis) {
         this.docGeneratorService = docGeneratorService;
+        this.jobService = jobService;
+        this.sseTimeoutMillis = sseTimeoutMillis;
     }
 
     @PostMapping("/generate")
@@ -27,6 +43,7 @@ public class DocumentationController {
         
         Map<String, Object> response = new HashMap<>();
         
+        OllamaLimiter.setCurrentUser(sessionId);
         try {
             String documentation = docGeneratorService.generateDocumentation(sessionId);
             
@@ -40,22 +57,152 @@ public class DocumentationController {
             response.put("success", false);
             response.put("message", e.getMessage());
             return ResponseEntity.internalServerError().body(response);
+        } finally {
+            OllamaLimiter.setCurrentUser(null);
         }
     }
 
+    /**
+     * Start generation as a background job and return its initial progress right away.
+     * Poll /jobs/{jobId} for updates.
+     */
     @PostMapping("/generate-with-progress")
     public ResponseEntity<DocumentationProgress> generateWithProgress(
             @RequestParam String sessionId) {
         
-        DocumentationProgress progress = docGeneratorService.generateDocumentationWithProgress(sessionId);
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobService.submit(sessionId));
+
+        } catch (IllegalArgumentException e) {
+            DocumentationProgress progress = new DocumentationProgress();
+            progress.setStatus("Error: " + e.getMessage());
+            progress.setError(e.getMessage());
+            return ResponseEntity.badRequest().body(progress);
+
+        } catch (RejectedExecutionException e) {
+            DocumentationProgress progress = new DocumentationProgress();
+            progress.setStatus("Error: Too many documentation jobs");
+            progress.setError("Too many documentation jobs are queued, try again later");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(progress);
+        }
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> submitJob(
+            @RequestParam String sessionId) {
+
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            DocumentationProgress progress = jobService.submit(sessionId);
+
+            response.put("success", true);
+            response.put("message", "Documentation job submitted");
+            response.put("jobId", progress.getJobId());
+            response.put("status", progress.getStatus());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+
+        } catch (RejectedExecutionException e) {
+            response.put("success", false);
+            response.put("message", "Too many documentation jobs are queued, try again later");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<DocumentationProgress> getJob(@PathVariable String jobId) {
+        DocumentationProgress progress = jobService.getJob(jobId);
+        if (progress == null) {
+            return ResponseEntity.notFound().build();
+        }
         return ResponseEntity.ok(progress);
     }
 
+    /**
+     * Stream a job as server-sent events: "progress" on every phase change,
+     * "token" for model output while an AI section is generated,
+     * "section" for each README section as soon as it is rendered, and a final
+     * "complete" event carrying the assembled documentation
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String jobId) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+        DocumentationListener listener = sseListener(emitter);
+
+        if (!jobService.subscribe(jobId, listener)) {
+            return ResponseEntity.notFound().build();
+        }
+        emitter.onCompletion(() -> jobService.unsubscribe(jobId, listener));
+        emitter.onTimeout(() -> jobService.unsubscribe(jobId, listener));
+        emitter.onError(error -> jobService.unsubscribe(jobId, listener));
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Submit (or join) the documentation job of a session and stream it, for EventSource clients
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamDocumentation(@RequestParam String sessionId) {
+        try {
+            DocumentationProgress progress = jobService.submit(sessionId);
+            return streamJob(progress.getJobId());
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+    }
+
+    private DocumentationListener sseListener(SseEmitter emitter) {
+        return new DocumentationListener() {
+            @Override
+            public void onProgress(DocumentationProgress progress) {
+                send(SseEmitter.event().name("progress").data(progress, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void onToken(ReadmeSection.Part part, String token) {
+                Map<String, Object> data = new HashMap<>();
+                data.put("part", part);
+                data.put("token", token);
+                send(SseEmitter.event().name("token").data(data, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void onSection(ReadmeSection section) {
+                send(SseEmitter.event().name("section").data(section, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void onComplete(DocumentationProgress progress) {
+                send(SseEmitter.event().name("complete").data(progress, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            }
+
+            private void send(SseEmitter.SseEventBuilder event) {
+                try {
+                    emitter.send(event);
+                } catch (IOException e) {
+                    // Client went away; the job drops this listener
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
     @GetMapping("/download")
     public ResponseEntity<byte[]> downloadDocumentation(
             @RequestParam String sessionId,
             @RequestParam(defaultValue = "markdown") String format) {
         
+        OllamaLimiter.setCurrentUser(sessionId);
         try {
             String documentation = docGeneratorService.generateDocumentation(sessionId);
             
@@ -70,13 +217,17 @@ public class DocumentationController {
             
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
+        } finally {
+            OllamaLimiter.setCurrentUser(null);
         }
     }
 
     @GetMapping("/health")
-    public ResponseEntity<Map<String, String>> health() {
-        Map<String, String> response = new HashMap<>();
+    public ResponseEntity<Map<String, Object>> health() {
+        Map<String, Object> response = new HashMap<>();
         response.put("status", "ready");
+        response.put("jobs", jobService.getStatistics());
+        response.put("classDocs", docGeneratorService.getClassDocumentationStatistics());
         return ResponseEntity.ok(response);
     }
 }
@@ -1,7 +1,12 @@
 package com.reposcribe.controller;
 
 import com.reposcribe.dto.GitCloneRequest;
+import com.reposcribe.dto.GitUpdateRequest;
+import com.reposcribe.model.RepositoryChanges;
+import com.reposcribe.model.Session;
+import com.reposcribe.service.GitMirrorCache;
 import com.reposcribe.service.GitService;
+import com.reposcribe.service.SessionAnalysisService;
 import com.reposcribe.service.SessionService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,11 +20,19 @@ import java.util.Map;
 public class GitController {
 
     private final GitService gitService;
+    private final GitMirrorCache mirrorCache;
     private final SessionService sessionService;
+    private final SessionAnalysisService sessionAnalysisService;
 
-    public GitController(GitService gitService, SessionService sessionService) {
+    public GitController(
+            GitService gitService,
+            GitMirrorCache mirrorCache,
+            SessionService sessionService,
+            SessionAnalysisService sessionAnalysisService) {
         this.gitService = gitService;
+        this.mirrorCache = mirrorCache;
         this.sessionService = sessionService;
+        this.sessionAnalysisService = sessionAnalysisService;
     }
 
     @PostMapping("/clone")
@@ -46,11 +59,15 @@ public class GitController {
             Path clonedPath = gitService.cloneRepository(
                 request.getRepositoryUrl(),
                 request.getUsername(),
-                request.getPassword()
+                request.getPassword(),
+                request.getBranch()
             );
 
             // Register session
-            String sessionId = sessionService.registerSession(clonedPath);
+            Session.Source source = gitService.isBareRepository(clonedPath)
+                ? Session.Source.GIT_OBJECTS
+                : Session.Source.DIRECTORY;
+            String sessionId = sessionService.registerSession(clonedPath, source);
 
             response.put("success", true);
             response.put("message", "Repository cloned successfully");
@@ -71,10 +88,52 @@ public class GitController {
         }
     }
 
+    @PostMapping("/update")
+    public ResponseEntity<Map<String, Object>> updateRepository(
+            @RequestBody GitUpdateRequest request) {
+
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            if (request.getSessionId() == null || !sessionService.sessionExists(request.getSessionId())) {
+                response.put("success", false);
+                response.put("message", "Invalid session ID");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            // Fetch new commits and reparse only the changed files
+            RepositoryChanges changes = sessionAnalysisService.updateGitSession(
+                request.getSessionId(),
+                request.getUsername(),
+                request.getPassword()
+            );
+
+            response.put("success", true);
+            response.put("message", changes.isEmpty() ? "Repository is up to date" : "Repository updated successfully");
+            response.put("sessionId", request.getSessionId());
+            response.put("oldCommit", changes.getOldCommit());
+            response.put("newCommit", changes.getNewCommit());
+            response.put("changedFiles", changes.getChangedFileCount());
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Failed to update repository: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
     @GetMapping("/health")
-    public ResponseEntity<Map<String, String>> health() {
-        Map<String, String> response = new HashMap<>();
+    public ResponseEntity<Map<String, Object>> health() {
+        Map<String, Object> response = new HashMap<>();
         response.put("status", "Git service is ready");
+        response.put("mirrors", mirrorCache.getStatistics());
         return ResponseEntity.ok(response);
     }
 }
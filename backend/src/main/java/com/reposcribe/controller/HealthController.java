@@ -1,18 +1,33 @@
 package com.reposcribe.controller;
 
+import com.reposcribe.service.SessionReaper;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/health")
 public class HealthController {
 
+    private final SessionReaper sessionReaper;
+
+    public HealthController(SessionReaper sessionReaper) {
+        this.sessionReaper = sessionReaper;
+    }
+
     @GetMapping
     public String health() {
         return "Backend is running!";
     }
 
+    @GetMapping("/sessions")
+    public ResponseEntity<Map<String, Object>> sessions() {
+        return ResponseEntity.ok(sessionReaper.getStatistics());
+    }
+
     @GetMapping("/protected")
     public String protectedEndpoint() {
         return "This is a protected endpoint!";
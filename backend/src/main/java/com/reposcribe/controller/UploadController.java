@@ -1,12 +1,11 @@
 package com.reposcribe.controller;
 
-import com.reposcribe.service.SessionService;
-import com.reposcribe.service.UploadService;
+import com.reposcribe.model.Session;
+import com.reposcribe.service.SessionAnalysisService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -14,12 +13,10 @@ import java.util.Map;
 @RequestMapping("/api/upload")
 public class UploadController {
 
-    private final UploadService uploadService;
-    private final SessionService sessionService;
+    private final SessionAnalysisService sessionAnalysisService;
 
-    public UploadController(UploadService uploadService, SessionService sessionService) {
-        this.uploadService = uploadService;
-        this.sessionService = sessionService;
+    public UploadController(SessionAnalysisService sessionAnalysisService) {
+        this.sessionAnalysisService = sessionAnalysisService;
     }
 
     @PostMapping("/file")
@@ -29,13 +26,13 @@ public class UploadController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            // Process the uploaded file
-            Path extractedPath = uploadService.processZipUpload(file);
-            String sessionId = sessionService.registerSession(extractedPath);
+            // Process the uploaded file, parsing sources while they are extracted
+            Session session = sessionAnalysisService.createUploadSession(file);
+            boolean archive = session.getSource() == Session.Source.ARCHIVE;
             
             response.put("success", true);
-            response.put("message", "File uploaded and extracted successfully");
-            response.put("sessionId", sessionId);
+            response.put("message", archive ? "File uploaded successfully" : "File uploaded and extracted successfully");
+            response.put("sessionId", session.getId());
             
             return ResponseEntity.ok(response);
             
@@ -4,6 +4,7 @@ public class GitCloneRequest {
     private String repositoryUrl;
     private String username;  // Optional, for private repos
     private String password;  // Optional, for private repos (token)
+    private String branch;    // Optional, defaults to the remote's default branch
 
     public GitCloneRequest() {
     }
@@ -37,5 +38,12 @@ public class GitCloneRequest {
     public void setPassword(String password) {
         this.password = password;
     }
-}
 
+    public String getBranch() {
+        return branch;
+    }
+
+    public void setBranch(String branch) {
+        this.branch = branch;
+    }
+}
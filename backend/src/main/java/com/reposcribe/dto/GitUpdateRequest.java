@@ -0,0 +1,34 @@
+package com.reposcribe.dto;
+
+public class GitUpdateRequest {
+    private String sessionId;
+    private String username;  // Optional, for private repos
+    private String password;  // Optional, for private repos (token)
+
+    public GitUpdateRequest() {
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+}
@@ -1,119 +1,290 @@
 package com.reposcribe.generator;
 
 import com.reposcribe.ai.AIService;
+import com.reposcribe.ai.ClassDocumentationService;
+import com.reposcribe.ai.OllamaLimiter;
 import com.reposcribe.ai.SemanticAnalysisService;
+import com.reposcribe.ai.dto.ClassDescriptions;
+import com.reposcribe.ai.dto.ProjectAnalysis;
 import com.reposcribe.generator.model.DocumentationProgress;
-import com.reposcribe.parser.UnifiedParserService;
+import com.reposcribe.generator.model.ReadmeSection;
 import com.reposcribe.parser.model.ClassInfo;
+import com.reposcribe.parser.model.DirectoryAnalysis;
+import com.reposcribe.service.SessionAnalysisService;
 import com.reposcribe.service.SessionService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 public class DocumentationGeneratorService {
 
-    private final UnifiedParserService parserService;
+    private final SessionAnalysisService sessionAnalysisService;
     private final AIService aiService;
     private final SemanticAnalysisService semanticService;
     private final TemplateService templateService;
     private final SessionService sessionService;
+    private final ClassDocumentationService classDocumentationService;
+    private final boolean combinedAnalysis;
+    // AI phases mostly wait on Ollama; the OllamaLimiter bounds how many actually run
+    private final ExecutorService aiExecutor = Executors.newCachedThreadPool();
 
     public DocumentationGeneratorService(
-            UnifiedParserService parserService,
+            SessionAnalysisService sessionAnalysisService,
             AIService aiService,
             SemanticAnalysisService semanticService,
             TemplateService templateService,
-            SessionService sessionService) {
-        this.parserService = parserService;
+            SessionService sessionService,
+            ClassDocumentationService classDocumentationService,
+            @Value("${ai.combined-analysis.enabled:true}") boolean combinedAnalysis) {
+        this.sessionAnalysisService = sessionAnalysisService;
         this.aiService = aiService;
         this.semanticService = semanticService;
         this.templateService = templateService;
         this.sessionService = sessionService;
+        this.classDocumentationService = classDocumentationService;
+        this.combinedAnalysis = combinedAnalysis;
     }
 
-    public String generateDocumentation(String sessionId) throws Exception {
-        if (!sessionService.sessionExists(sessionId)) {
-            throw new IllegalArgumentException("Invalid session ID");
-        }
+    @PreDestroy
+    public void shutdown() {
+        aiExecutor.shutdownNow();
+    }
 
+    public String generateDocumentation(String sessionId) throws Exception {
+        DirectoryAnalysis analysis = sessionAnalysisService.analyzeSession(sessionId);
         Path sessionPath = sessionService.getSessionPath(sessionId);
-        if (sessionPath == null) {
-            throw new IllegalArgumentException("Session path not found");
-        }
-
-        Map<String, List<ClassInfo>> parsedClasses = parserService.parseDirectory(sessionPath);
-        Map<String, Object> statistics = parserService.getDirectoryStatistics(sessionPath);
+        Map<String, List<ClassInfo>> parsedClasses = analysis.getParsedClasses();
+        Map<String, Object> statistics = analysis.getStatistics();
+        List<ClassInfo> allClasses = analysis.getAllClasses();
+        String user = OllamaLimiter.getCurrentUser();
+        CompletableFuture<ClassDescriptions> classDocs = documentClasses(user, allClasses);
         
-        List<ClassInfo> allClasses = parsedClasses.values().stream()
-            .flatMap(List::stream)
-            .collect(Collectors.toList());
-        
-        String projectOverview = aiService.generateProjectOverview(allClasses);
-        String architectureAnalysis = semanticService.identifyArchitecture(allClasses);
+        String projectOverview;
+        String architectureAnalysis;
+        ProjectAnalysis combined = analyzeCombined(allClasses);
+        if (combined != null) {
+            projectOverview = combined.getOverview();
+            architectureAnalysis = combined.getArchitecture();
+        } else {
+            // Neither section depends on the other, so both requests run at once
+            CompletableFuture<String> overview = supplyAi(user, () -> aiService.generateProjectOverview(allClasses));
+            CompletableFuture<String> architecture = supplyAi(user, () -> semanticService.identifyArchitecture(allClasses));
+            projectOverview = await(overview);
+            architectureAnalysis = await(architecture);
+        }
         String projectName = extractProjectName(sessionPath);
+        ClassDescriptions classDescriptions = await(classDocs);
         
         return templateService.generateReadme(
             projectName,
             projectOverview,
             parsedClasses,
             statistics,
-            architectureAnalysis
+            architectureAnalysis,
+            classDescriptions
         );
     }
 
     public DocumentationProgress generateDocumentationWithProgress(String sessionId) {
         DocumentationProgress progress = new DocumentationProgress();
-        
+        generateDocumentationWithProgress(sessionId, progress);
+        return progress;
+    }
+
+    /**
+     * Generate documentation, publishing each phase to the given progress so
+     * other threads can observe it while the job runs
+     */
+    public void generateDocumentationWithProgress(String sessionId, DocumentationProgress progress) {
+        generateDocumentationWithProgress(sessionId, progress, DocumentationListener.NONE);
+    }
+
+    /**
+     * Generate documentation, reporting phase changes and each README section to
+     * the listener as soon as it is ready. The AI-backed sections only depend on
+     * the parse results, so their requests start right after parsing and run
+     * concurrently with each other and with rendering the template sections.
+     */
+    public void generateDocumentationWithProgress(
+            String sessionId,
+            DocumentationProgress progress,
+            DocumentationListener listener) {
         try {
-            progress.setStatus("Parsing files...");
-            progress.setProgress(10);
+            updateProgress(progress, listener, "Parsing files...", 10);
             
+            DirectoryAnalysis analysis = sessionAnalysisService.analyzeSession(sessionId);
             Path sessionPath = sessionService.getSessionPath(sessionId);
-            Map<String, List<ClassInfo>> parsedClasses = parserService.parseDirectory(sessionPath);
-            Map<String, Object> statistics = parserService.getDirectoryStatistics(sessionPath);
-            
-            progress.setStatus("Analyzing project...");
-            progress.setProgress(30);
-            
-            List<ClassInfo> allClasses = parsedClasses.values().stream()
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
-            
-            String projectOverview = aiService.generateProjectOverview(allClasses);
-            
-            progress.setStatus("Analyzing architecture...");
-            progress.setProgress(50);
-            
-            String architectureAnalysis = semanticService.identifyArchitecture(allClasses);
+            Map<String, List<ClassInfo>> parsedClasses = analysis.getParsedClasses();
+            Map<String, Object> statistics = analysis.getStatistics();
+            String projectName = extractProjectName(sessionPath);
+
+            List<ClassInfo> allClasses = analysis.getAllClasses();
+            List<ReadmeSection> sections = Collections.synchronizedList(new ArrayList<>());
+
+            updateProgress(progress, listener, "Analyzing project...", 20);
+
+            CompletableFuture<Void> aiSections = analyzeSections(allClasses, sections, listener);
+            // Components show the per-class AI descriptions, so they wait for them when enabled
+            CompletableFuture<Void> components = documentClasses(OllamaLimiter.getCurrentUser(), allClasses)
+                .thenAccept(descriptions -> publishSection(sections, listener, ReadmeSection.Part.COMPONENTS, templateService.renderComponents(parsedClasses, descriptions)));
+
+            publishSection(sections, listener, ReadmeSection.Part.TITLE, templateService.renderTitle(projectName));
+            publishSection(sections, listener, ReadmeSection.Part.TABLE_OF_CONTENTS, templateService.renderTableOfContents());
+            publishSection(sections, listener, ReadmeSection.Part.STATISTICS, templateService.renderStatistics(statistics));
+            publishSection(sections, listener, ReadmeSection.Part.GETTING_STARTED, templateService.renderGettingStarted(projectName));
+
+            updateProgress(progress, listener, "Waiting for AI analysis...", 40);
+
+            await(aiSections);
+            await(components);
             
-            progress.setStatus("Generating documentation...");
-            progress.setProgress(90);
+            updateProgress(progress, listener, "Generating documentation...", 90);
             
-            String projectName = extractProjectName(sessionPath);
-            String readme = templateService.generateReadme(
-                projectName,
-                projectOverview,
-                parsedClasses,
-                statistics,
-                architectureAnalysis
-            );
+            String readme = templateService.assemble(sections);
             
-            progress.setStatus("Complete");
-            progress.setProgress(100);
             progress.setDocumentation(readme);
+            updateProgress(progress, listener, "Complete", 100);
             
         } catch (Exception e) {
-            progress.setStatus("Error: " + e.getMessage());
-            progress.setProgress(0);
             progress.setError(e.getMessage());
+            updateProgress(progress, listener, "Error: " + e.getMessage(), 0);
         }
-        
-        return progress;
+    }
+
+    /**
+     * Start the overview and architecture requests and publish each section as it
+     * completes. A combined request is tried first when enabled; otherwise, or if
+     * its answer is unusable, the two sections are requested concurrently.
+     */
+    private CompletableFuture<Void> analyzeSections(
+            List<ClassInfo> allClasses,
+            List<ReadmeSection> sections,
+            DocumentationListener listener) {
+        String user = OllamaLimiter.getCurrentUser();
+
+        CompletableFuture<ProjectAnalysis> combined = combinedAnalysis
+            ? supplyAi(user, () -> analyzeCombined(allClasses))
+            : CompletableFuture.completedFuture(null);
+
+        return combined.thenCompose(analysis -> {
+            if (analysis != null) {
+                publishSection(sections, listener, ReadmeSection.Part.OVERVIEW, templateService.renderOverview(analysis.getOverview()));
+                publishSection(sections, listener, ReadmeSection.Part.ARCHITECTURE, templateService.renderArchitecture(analysis.getArchitecture()));
+                return CompletableFuture.completedFuture(null);
+            }
+
+            CompletableFuture<Void> overview = supplyAi(user, () -> aiService.generateProjectOverview(
+                    allClasses, token -> listener.onToken(ReadmeSection.Part.OVERVIEW, token)))
+                .thenAccept(text -> publishSection(sections, listener, ReadmeSection.Part.OVERVIEW, templateService.renderOverview(text)));
+            CompletableFuture<Void> architecture = supplyAi(user, () -> semanticService.identifyArchitecture(
+                    allClasses, token -> listener.onToken(ReadmeSection.Part.ARCHITECTURE, token)))
+                .thenAccept(text -> publishSection(sections, listener, ReadmeSection.Part.ARCHITECTURE, templateService.renderArchitecture(text)));
+            return CompletableFuture.allOf(overview, architecture);
+        });
+    }
+
+    /**
+     * Start the batched per-class AI documentation when it is enabled. The result
+     * is null when it is disabled or failed; failures are logged and the
+     * components are then rendered without AI descriptions.
+     */
+    private CompletableFuture<ClassDescriptions> documentClasses(String user, List<ClassInfo> allClasses) {
+        if (!classDocumentationService.isEnabled()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return supplyAi(user, () -> classDocumentationService.documentClasses(allClasses)).exceptionally(e -> {
+            System.err.println("Per-class documentation failed: " + e.getMessage());
+            return null;
+        });
+    }
+
+    public Map<String, Object> getClassDocumentationStatistics() {
+        return classDocumentationService.getStatistics();
+    }
+
+    /**
+     * Run an AI call on the AI executor, attributing it to the same limiter user as the caller
+     */
+    private <T> CompletableFuture<T> supplyAi(String user, AiCall<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            OllamaLimiter.setCurrentUser(user);
+            try {
+                return call.call();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                OllamaLimiter.setCurrentUser(null);
+            }
+        }, aiExecutor);
+    }
+
+    /**
+     * Wait for an AI phase, rethrowing the exception it failed with
+     */
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface AiCall<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * Ask for the overview and architecture in one request when combined analysis
+     * is enabled. Returns null when it is disabled or the answer is unusable, in
+     * which case the sections are requested separately.
+     */
+    private ProjectAnalysis analyzeCombined(List<ClassInfo> allClasses) {
+        if (!combinedAnalysis) {
+            return null;
+        }
+        try {
+            return aiService.analyzeProject(allClasses);
+        } catch (IOException e) {
+            System.err.println("Combined analysis failed, requesting sections separately: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void updateProgress(DocumentationProgress progress, DocumentationListener listener, String status, int percent) {
+        progress.setStatus(status);
+        progress.setProgress(percent);
+        listener.onProgress(progress);
+    }
+
+    private void publishSection(
+            List<ReadmeSection> sections,
+            DocumentationListener listener,
+            ReadmeSection.Part part,
+            String markdown) {
+        ReadmeSection section = new ReadmeSection(part, markdown);
+        sections.add(section);
+        listener.onSection(section);
     }
 
     private String extractProjectName(Path path) {
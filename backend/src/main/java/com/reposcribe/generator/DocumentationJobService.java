@@ -0,0 +1,332 @@
+package com.reposcribe.generator;
+
+import com.reposcribe.ai.OllamaLimiter;
+import com.reposcribe.generator.model.DocumentationProgress;
+import com.reposcribe.generator.model.ReadmeSection;
+import com.reposcribe.model.Session;
+import com.reposcribe.service.SessionService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs documentation generation as background jobs. Submitting returns at
+ * once with a job id; the work runs on a bounded executor so a burst of
+ * LLM-backed requests queues up instead of holding servlet threads. When
+ * both the workers and the queue are full, new jobs are rejected.
+ */
+@Service
+public class DocumentationJobService {
+
+    private final DocumentationGeneratorService docGeneratorService;
+    private final SessionService sessionService;
+    private final ThreadPoolExecutor executor;
+    // Sends events to subscribers, so a slow client never holds up a job
+    private final ExecutorService deliveryExecutor = Executors.newCachedThreadPool();
+    private final long retentionMillis;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    // Running or queued job per session, so repeated submits join the same job
+    private final Map<String, String> activeJobsBySession = new ConcurrentHashMap<>();
+    private final AtomicLong submittedJobs = new AtomicLong();
+    private final AtomicLong rejectedJobs = new AtomicLong();
+
+    public DocumentationJobService(
+            DocumentationGeneratorService docGeneratorService,
+            SessionService sessionService,
+            @Value("${documentation.jobs.concurrency:2}") int concurrency,
+            @Value("${documentation.jobs.queue-capacity:16}") int queueCapacity,
+            @Value("${documentation.jobs.retention-minutes:30}") long retentionMinutes) {
+        this.docGeneratorService = docGeneratorService;
+        this.sessionService = sessionService;
+        this.executor = new ThreadPoolExecutor(
+            concurrency, concurrency,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.retentionMillis = retentionMinutes * 60_000;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        deliveryExecutor.shutdownNow();
+    }
+
+    /**
+     * Queue documentation generation for a session. If a job for the session
+     * is already queued or running, that job is returned instead.
+     * @throws IllegalArgumentException if the session does not exist
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public synchronized DocumentationProgress submit(String sessionId) {
+        if (sessionId == null || !sessionService.sessionExists(sessionId)) {
+            throw new IllegalArgumentException("Invalid session ID");
+        }
+
+        String activeJobId = activeJobsBySession.get(sessionId);
+        if (activeJobId != null) {
+            Job activeJob = jobs.get(activeJobId);
+            if (activeJob != null && !activeJob.progress.isDone()) {
+                return activeJob.progress;
+            }
+        }
+
+        DocumentationProgress progress = new DocumentationProgress();
+        progress.setJobId(UUID.randomUUID().toString());
+        progress.setSessionId(sessionId);
+        progress.setStatus("Queued");
+
+        Job job = new Job(progress, deliveryExecutor);
+        jobs.put(progress.getJobId(), job);
+        activeJobsBySession.put(sessionId, progress.getJobId());
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(progress.getJobId());
+            activeJobsBySession.remove(sessionId, progress.getJobId());
+            rejectedJobs.incrementAndGet();
+            throw e;
+        }
+        submittedJobs.incrementAndGet();
+        return progress;
+    }
+
+    private void run(Job job) {
+        DocumentationProgress progress = job.progress;
+        // AI calls of this job count against the session's share of Ollama
+        OllamaLimiter.setCurrentUser(progress.getSessionId());
+        try {
+            docGeneratorService.generateDocumentationWithProgress(progress.getSessionId(), progress, job);
+        } catch (RuntimeException e) {
+            progress.setStatus("Error: " + e.getMessage());
+            progress.setError(e.getMessage());
+        } finally {
+            OllamaLimiter.setCurrentUser(null);
+            progress.finish();
+            activeJobsBySession.remove(progress.getSessionId(), progress.getJobId());
+            job.onComplete(progress);
+        }
+    }
+
+    /**
+     * Whether a job for the session is queued or running
+     */
+    public boolean hasActiveJob(String sessionId) {
+        return sessionId != null && activeJobsBySession.containsKey(sessionId);
+    }
+
+    /**
+     * Clean up a session unless a job for it is queued or running. Runs under
+     * the lock {@link #submit} holds while it checks the session and registers
+     * the job, so a session is never removed between the two.
+     * @return The removed session, or null if it is busy or did not exist
+     */
+    public synchronized Session cleanupSessionWithoutJob(String sessionId) {
+        if (hasActiveJob(sessionId)) {
+            return null;
+        }
+        return sessionService.cleanupSession(sessionId);
+    }
+
+    /**
+     * Current state of a job, or null if it is unknown or has expired
+     */
+    public DocumentationProgress getJob(String jobId) {
+        Job job = jobId != null ? jobs.get(jobId) : null;
+        return job != null ? job.progress : null;
+    }
+
+    /**
+     * Follow a job's events. The listener first receives the current progress
+     * and every section rendered so far, then live events until the job completes.
+     * @return false if the job is unknown or has expired
+     */
+    public boolean subscribe(String jobId, DocumentationListener listener) {
+        Job job = jobId != null ? jobs.get(jobId) : null;
+        if (job == null) {
+            return false;
+        }
+        job.subscribe(listener);
+        return true;
+    }
+
+    /**
+     * Stop sending a job's events to a listener, e.g. after the client disconnected
+     */
+    public void unsubscribe(String jobId, DocumentationListener listener) {
+        Job job = jobId != null ? jobs.get(jobId) : null;
+        if (job != null) {
+            job.unsubscribe(listener);
+        }
+    }
+
+    /**
+     * Forget finished jobs once their result has been kept long enough to be collected
+     */
+    @Scheduled(fixedDelayString = "${documentation.jobs.prune-interval-ms:60000}")
+    public void pruneFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        jobs.values().removeIf(job -> job.progress.isDone() && job.progress.getFinishedAt() < cutoff);
+    }
+
+    /**
+     * Executor load and job counters
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("concurrency", executor.getMaximumPoolSize());
+        stats.put("running", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("submitted", submittedJobs.get());
+        stats.put("rejected", rejectedJobs.get());
+        stats.put("retained", jobs.size());
+        return stats;
+    }
+
+    /**
+     * A submitted job: its progress, the sections rendered so far and the
+     * listeners following it. Events are queued per listener under the job's
+     * lock, so a new subscriber's replay never interleaves with live events,
+     * and sent from the delivery executor outside of it.
+     */
+    private static final class Job implements DocumentationListener {
+        private final DocumentationProgress progress;
+        private final Executor deliveryExecutor;
+        private final List<ReadmeSection> sections = new ArrayList<>();
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private boolean completed;
+
+        private Job(DocumentationProgress progress, Executor deliveryExecutor) {
+            this.progress = progress;
+            this.deliveryExecutor = deliveryExecutor;
+        }
+
+        synchronized void subscribe(DocumentationListener listener) {
+            Subscriber subscriber = new Subscriber(listener, deliveryExecutor);
+            subscriber.post(l -> l.onProgress(progress));
+            sections.forEach(section -> subscriber.post(l -> l.onSection(section)));
+            if (completed) {
+                subscriber.post(l -> l.onComplete(progress));
+            } else {
+                subscribers.add(subscriber);
+            }
+        }
+
+        synchronized void unsubscribe(DocumentationListener listener) {
+            subscribers.removeIf(subscriber -> {
+                if (subscriber.listener == listener) {
+                    subscriber.closed = true;
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        @Override
+        public synchronized void onProgress(DocumentationProgress progress) {
+            deliver(listener -> listener.onProgress(progress));
+        }
+
+        @Override
+        public synchronized void onToken(ReadmeSection.Part part, String token) {
+            // Tokens are not replayed; late subscribers get the finished section instead
+            deliver(listener -> listener.onToken(part, token));
+        }
+
+        @Override
+        public synchronized void onSection(ReadmeSection section) {
+            sections.add(section);
+            deliver(listener -> listener.onSection(section));
+        }
+
+        @Override
+        public synchronized void onComplete(DocumentationProgress progress) {
+            completed = true;
+            deliver(listener -> listener.onComplete(progress));
+            subscribers.clear();
+        }
+
+        /**
+         * Queue an event for every subscriber, dropping subscribers that failed (usually a closed connection)
+         */
+        private void deliver(Consumer<DocumentationListener> event) {
+            subscribers.removeIf(subscriber -> subscriber.closed);
+            subscribers.forEach(subscriber -> subscriber.post(event));
+        }
+    }
+
+    /**
+     * Events for one listener, sent in order by at most one delivery thread at a
+     * time. A listener that throws, or falls too far behind, is closed.
+     */
+    private static final class Subscriber implements Runnable {
+        private static final int MAX_PENDING_EVENTS = 10_000;
+
+        private final DocumentationListener listener;
+        private final Executor executor;
+        private final Queue<Consumer<DocumentationListener>> events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean closed;
+
+        private Subscriber(DocumentationListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        void post(Consumer<DocumentationListener> event) {
+            if (closed) {
+                return;
+            }
+            if (pending.get() >= MAX_PENDING_EVENTS) {
+                System.err.println("Dropped documentation listener that stopped reading events");
+                closed = true;
+                return;
+            }
+            events.add(event);
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    closed = true;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            do {
+                Consumer<DocumentationListener> event = events.poll();
+                if (!closed && event != null) {
+                    try {
+                        event.accept(listener);
+                    } catch (RuntimeException e) {
+                        closed = true;
+                    }
+                }
+            } while (pending.decrementAndGet() > 0);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.reposcribe.generator;
+
+import com.reposcribe.generator.model.DocumentationProgress;
+import com.reposcribe.generator.model.ReadmeSection;
+
+/**
+ * Receives documentation generation events as they happen
+ */
+public interface DocumentationListener {
+
+    DocumentationListener NONE = new DocumentationListener() {
+    };
+
+    /**
+     * The job moved to a new phase
+     */
+    default void onProgress(DocumentationProgress progress) {
+    }
+
+    /**
+     * The model produced more text for a section that is still being generated
+     */
+    default void onToken(ReadmeSection.Part part, String token) {
+    }
+
+    /**
+     * A README section has been rendered
+     */
+    default void onSection(ReadmeSection section) {
+    }
+
+    /**
+     * The job finished, successfully or with an error
+     */
+    default void onComplete(DocumentationProgress progress) {
+    }
+}
@@ -1,8 +1,12 @@
 package com.reposcribe.generator;
 
+import com.reposcribe.ai.dto.ClassDescriptions;
+import com.reposcribe.generator.model.ReadmeSection;
 import com.reposcribe.parser.model.ClassInfo;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -15,24 +19,56 @@ public class TemplateService {
             String projectOverview,
             Map<String, List<ClassInfo>> parsedClasses,
             Map<String, Object> statistics,
-            String architectureAnalysis) {
+            String architectureAnalysis,
+            ClassDescriptions classDescriptions) {
         
+        return renderTitle(projectName)
+            + renderOverview(projectOverview)
+            + renderTableOfContents()
+            + renderStatistics(statistics)
+            + renderArchitecture(architectureAnalysis)
+            + renderComponents(parsedClasses, classDescriptions)
+            + renderGettingStarted(projectName);
+    }
+
+    /**
+     * Join sections rendered separately, in document order
+     */
+    public String assemble(Collection<ReadmeSection> sections) {
+        return sections.stream()
+            .sorted(Comparator.comparingInt(ReadmeSection::getOrder))
+            .map(ReadmeSection::getMarkdown)
+            .collect(Collectors.joining());
+    }
+
+    public String renderTitle(String projectName) {
+        return "# " + (projectName != null ? projectName : "Project Documentation") + "\n\n";
+    }
+
+    public String renderOverview(String projectOverview) {
         StringBuilder readme = new StringBuilder();
-        readme.append("# ").append(projectName != null ? projectName : "Project Documentation").append("\n\n");
         readme.append("## Overview\n\n");
         if (projectOverview != null && !projectOverview.isEmpty()) {
             readme.append(projectOverview).append("\n\n");
         } else {
             readme.append("This project has been automatically analyzed and documented.\n\n");
         }
-        
+        return readme.toString();
+    }
+
+    public String renderTableOfContents() {
+        StringBuilder readme = new StringBuilder();
         readme.append("## Table of Contents\n\n");
         readme.append("- [Overview](#overview)\n");
         readme.append("- [Project Statistics](#project-statistics)\n");
         readme.append("- [Architecture](#architecture)\n");
         readme.append("- [Components](#components)\n");
         readme.append("\n");
-        
+        return readme.toString();
+    }
+
+    public String renderStatistics(Map<String, Object> statistics) {
+        StringBuilder readme = new StringBuilder();
         readme.append("## Project Statistics\n\n");
         if (statistics != null) {
             Map<String, Integer> fileCounts = (Map<String, Integer>) statistics.get("fileCounts");
@@ -54,12 +90,21 @@ public class TemplateService {
                 readme.append("\n");
             }
         }
-        
-        if (architectureAnalysis != null && !architectureAnalysis.isEmpty()) {
-            readme.append("## Architecture\n\n");
-            readme.append(architectureAnalysis).append("\n\n");
+        return readme.toString();
+    }
+
+    public String renderArchitecture(String architectureAnalysis) {
+        if (architectureAnalysis == null || architectureAnalysis.isEmpty()) {
+            return "";
         }
-        
+        return "## Architecture\n\n" + architectureAnalysis + "\n\n";
+    }
+
+    /**
+     * @param classDescriptions AI descriptions of this run, or null when there are none
+     */
+    public String renderComponents(Map<String, List<ClassInfo>> parsedClasses, ClassDescriptions classDescriptions) {
+        StringBuilder readme = new StringBuilder();
         readme.append("## Components\n\n");
         parsedClasses.forEach((language, classes) -> {
             readme.append("### ").append(language.toUpperCase()).append(" Components\n\n");
@@ -71,6 +116,10 @@ public class TemplateService {
                 if (classInfo.getJavadoc() != null && !classInfo.getJavadoc().isEmpty()) {
                     readme.append(classInfo.getJavadoc()).append("\n\n");
                 }
+                String classDescription = classDescriptions != null ? classDescriptions.getDescription(classInfo) : null;
+                if (classDescription != null && !classDescription.isEmpty()) {
+                    readme.append(classDescription).append("\n\n");
+                }
                 if (!classInfo.getMethods().isEmpty()) {
                     readme.append("**Methods**:\n\n");
                     classInfo.getMethods().forEach(method -> {
@@ -85,14 +134,23 @@ public class TemplateService {
                                 .collect(Collectors.joining(", "));
                             readme.append(params);
                         }
-                        readme.append(")`\n");
+                        readme.append(")`");
+                        String methodDescription = classDescriptions != null ? classDescriptions.getDescription(method) : null;
+                        if (methodDescription != null && !methodDescription.isEmpty()) {
+                            readme.append(" - ").append(methodDescription);
+                        }
+                        readme.append("\n");
                     });
                     readme.append("\n");
                 }
                 readme.append("---\n\n");
             });
         });
-        
+        return readme.toString();
+    }
+
+    public String renderGettingStarted(String projectName) {
+        StringBuilder readme = new StringBuilder();
         readme.append("## Getting Started\n\n");
         readme.append("### Prerequisites\n\n");
         readme.append("- Java 17+\n");
@@ -104,7 +162,6 @@ public class TemplateService {
         readme.append("mvn install\n");
         readme.append("```\n\n");
         readme.append("*This documentation was automatically generated.*\n");
-        
         return readme.toString();
     }
 }
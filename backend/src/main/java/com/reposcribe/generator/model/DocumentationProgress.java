@@ -1,16 +1,39 @@
 package com.reposcribe.generator.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class DocumentationProgress {
-    private String status;
-    private int progress; // 0-100
-    private String documentation;
-    private String error;
+    // Fields are written by the job worker and read by polling requests
+    private volatile String jobId;
+    private volatile String sessionId;
+    private volatile String status;
+    private volatile int progress; // 0-100
+    private volatile String documentation;
+    private volatile String error;
+    private volatile boolean done;
+    private volatile long finishedAt; // When the job finished, 0 while running
 
     public DocumentationProgress() {
         this.status = "Initializing";
         this.progress = 0;
     }
 
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -42,5 +65,21 @@ public class DocumentationProgress {
     public void setError(String error) {
         this.error = error;
     }
-}
 
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Mark the job as finished, successfully or not
+     */
+    public void finish() {
+        this.finishedAt = System.currentTimeMillis();
+        this.done = true;
+    }
+
+    @JsonIgnore
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+}
@@ -0,0 +1,41 @@
+package com.reposcribe.generator.model;
+
+/**
+ * One rendered section of the generated README. Sections may be produced out
+ * of order; {@link #getOrder()} gives their position in the final document.
+ */
+public class ReadmeSection {
+
+    /**
+     * README sections in document order
+     */
+    public enum Part {
+        TITLE,
+        OVERVIEW,
+        TABLE_OF_CONTENTS,
+        STATISTICS,
+        ARCHITECTURE,
+        COMPONENTS,
+        GETTING_STARTED
+    }
+
+    private final Part part;
+    private final String markdown;
+
+    public ReadmeSection(Part part, String markdown) {
+        this.part = part;
+        this.markdown = markdown;
+    }
+
+    public Part getPart() {
+        return part;
+    }
+
+    public int getOrder() {
+        return part.ordinal();
+    }
+
+    public String getMarkdown() {
+        return markdown;
+    }
+}
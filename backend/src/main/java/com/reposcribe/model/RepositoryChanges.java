@@ -0,0 +1,72 @@
+package com.reposcribe.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Paths changed between two commits, relative to the repository root
+ */
+public class RepositoryChanges {
+    private String oldCommit;
+    private String newCommit;
+    private List<String> addedPaths;
+    private List<String> modifiedPaths;
+    private List<String> deletedPaths;
+
+    public RepositoryChanges(String oldCommit, String newCommit) {
+        this.oldCommit = oldCommit;
+        this.newCommit = newCommit;
+        this.addedPaths = new ArrayList<>();
+        this.modifiedPaths = new ArrayList<>();
+        this.deletedPaths = new ArrayList<>();
+    }
+
+    public boolean isEmpty() {
+        return addedPaths.isEmpty() && modifiedPaths.isEmpty() && deletedPaths.isEmpty();
+    }
+
+    public int getChangedFileCount() {
+        return addedPaths.size() + modifiedPaths.size() + deletedPaths.size();
+    }
+
+    // Getters and Setters
+    public String getOldCommit() {
+        return oldCommit;
+    }
+
+    public void setOldCommit(String oldCommit) {
+        this.oldCommit = oldCommit;
+    }
+
+    public String getNewCommit() {
+        return newCommit;
+    }
+
+    public void setNewCommit(String newCommit) {
+        this.newCommit = newCommit;
+    }
+
+    public List<String> getAddedPaths() {
+        return addedPaths;
+    }
+
+    public void setAddedPaths(List<String> addedPaths) {
+        this.addedPaths = addedPaths;
+    }
+
+    public List<String> getModifiedPaths() {
+        return modifiedPaths;
+    }
+
+    public void setModifiedPaths(List<String> modifiedPaths) {
+        this.modifiedPaths = modifiedPaths;
+    }
+
+    public List<String> getDeletedPaths() {
+        return deletedPaths;
+    }
+
+    public void setDeletedPaths(List<String> deletedPaths) {
+        this.deletedPaths = deletedPaths;
+    }
+}
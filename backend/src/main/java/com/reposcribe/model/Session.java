@@ -0,0 +1,81 @@
+package com.reposcribe.model;
+
+import com.reposcribe.parser.model.DirectoryAnalysis;
+
+import java.nio.file.Path;
+
+public class Session {
+
+    /**
+     * Where the session's sources are read from
+     */
+    public enum Source {
+        DIRECTORY,   // Files extracted or checked out below the session path
+        GIT_OBJECTS, // Blobs of a bare repository at the session path, read without a checkout
+        ARCHIVE      // Entries of an uploaded ZIP stored in the session path, read without extraction
+    }
+
+    private final String id;
+    private final Path path;
+    private final Source source;
+    private final long createdAt;
+    private volatile long lastAccessedAt;
+    private volatile DirectoryAnalysis analysis; // Last parse of the session, reused until the sources change
+    private volatile long diskBytes = -1; // Size of the session path, -1 until measured
+
+    public Session(String id, Path path) {
+        this(id, path, Source.DIRECTORY);
+    }
+
+    public Session(String id, Path path, Source source) {
+        this.id = id;
+        this.path = path;
+        this.source = source;
+        this.createdAt = System.currentTimeMillis();
+        this.lastAccessedAt = createdAt;
+    }
+
+    /**
+     * Mark the session as used now
+     */
+    public void touch() {
+        lastAccessedAt = System.currentTimeMillis();
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getLastAccessedAt() {
+        return lastAccessedAt;
+    }
+
+    public long getDiskBytes() {
+        return diskBytes;
+    }
+
+    public void setDiskBytes(long diskBytes) {
+        this.diskBytes = diskBytes;
+    }
+
+    public DirectoryAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    public void setAnalysis(DirectoryAnalysis analysis) {
+        this.analysis = analysis;
+    }
+}
@@ -0,0 +1,149 @@
+package com.reposcribe.parser;
+
+import com.reposcribe.parser.model.ClassInfo;
+import com.reposcribe.parser.model.DirectoryAnalysis;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Parses source files while they are still being produced, for example while
+ * an upload is being extracted. Producers submit each finished file onto a
+ * bounded queue and block when parsing falls behind; worker threads drain the
+ * queue. Obtain instances from {@link UnifiedParserService#startPipeline()}.
+ */
+public class AnalysisPipeline {
+
+    // Marks the end of input for one worker; compared by identity
+    private static final Path END_OF_INPUT = Path.of("");
+
+    private final ParserRegistry parserRegistry;
+    private final BiFunction<Parser, Path, ClassInfo> parseFunction;
+    private final BlockingQueue<Path> queue;
+    private final List<Future<?>> workers = new ArrayList<>();
+    private final Map<Parser, AtomicInteger> fileCounts = new ConcurrentHashMap<>();
+    private final Map<Parser, List<ClassInfo>> classes = new ConcurrentHashMap<>();
+    private volatile boolean cancelled;
+    private boolean inputEnded;
+
+    AnalysisPipeline(
+            ParserRegistry parserRegistry,
+            BiFunction<Parser, Path, ClassInfo> parseFunction,
+            ExecutorService executor,
+            int workerCount,
+            int queueCapacity) {
+        this.parserRegistry = parserRegistry;
+        this.parseFunction = parseFunction;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(executor.submit(this::drain));
+        }
+    }
+
+    /**
+     * Queue a finished file for parsing, blocking while the queue is full.
+     * Files no registered parser reads are ignored. Safe to call from several threads.
+     */
+    public void submit(Path file) {
+        Parser parser = parserRegistry.getParserForFile(file);
+        if (parser == null || cancelled) {
+            return;
+        }
+
+        fileCounts.computeIfAbsent(parser, p -> new AtomicInteger()).incrementAndGet();
+        try {
+            queue.put(file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing " + file, e);
+        }
+    }
+
+    /**
+     * Signal that no more files will be submitted and wait for the workers to parse the rest
+     */
+    public DirectoryAnalysis finish() {
+        endInput();
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parsing was interrupted", e);
+        } catch (ExecutionException e) {
+            cancel();
+            throw new IllegalStateException("Pipelined parsing failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        DirectoryAnalysis analysis = new DirectoryAnalysis(parserRegistry.getSupportedLanguages());
+        for (Parser parser : parserRegistry.getAllParsers().values()) {
+            AtomicInteger fileCount = fileCounts.get(parser);
+            List<ClassInfo> parsed = new ArrayList<>(classes.getOrDefault(parser, List.of()));
+            // Workers finish in any order; sort so results do not depend on scheduling
+            parsed.sort(Comparator.comparing(ClassInfo::getFilePath, Comparator.nullsLast(Comparator.naturalOrder())));
+
+            analysis.setFileCount(parser.getLanguage(), fileCount != null ? fileCount.get() : 0);
+            analysis.setClasses(parser.getLanguage(), parsed);
+        }
+        return analysis;
+    }
+
+    /**
+     * Drop queued files and stop the workers, e.g. when the producer failed
+     */
+    public void cancel() {
+        cancelled = true;
+        queue.clear();
+        endInput();
+    }
+
+    private synchronized void endInput() {
+        if (inputEnded) {
+            return;
+        }
+        inputEnded = true;
+        for (int i = 0; i < workers.size(); i++) {
+            try {
+                queue.put(END_OF_INPUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                workers.forEach(worker -> worker.cancel(true));
+                return;
+            }
+        }
+    }
+
+    private Void drain() throws InterruptedException {
+        while (true) {
+            Path file = queue.take();
+            if (file == END_OF_INPUT) {
+                return null;
+            }
+            if (cancelled) {
+                continue;
+            }
+
+            Parser parser = parserRegistry.getParserForFile(file);
+            ClassInfo classInfo = parseFunction.apply(parser, file);
+            if (classInfo != null) {
+                List<ClassInfo> parsed = classes.computeIfAbsent(parser, p -> new ArrayList<>());
+                synchronized (parsed) {
+                    parsed.add(classInfo);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.reposcribe.parser;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Immutable open-addressing table from file extension to parser.
+ * Lookups hash the extension in place (case-insensitively) straight from the
+ * path string, so routing a file costs one probe and no allocation.
+ */
+final class ExtensionIndex {
+
+    static final ExtensionIndex EMPTY = new ExtensionIndex(Map.of());
+
+    private final String[] extensions;
+    private final Parser[] parsers;
+    private final int mask;
+
+    /**
+     * @param parsersByExtension lower-case extensions including the dot, e.g. ".java"
+     */
+    ExtensionIndex(Map<String, Parser> parsersByExtension) {
+        int capacity = Integer.highestOneBit(Math.max(2, parsersByExtension.size() * 4) - 1) << 1;
+        this.extensions = new String[capacity];
+        this.parsers = new Parser[capacity];
+        this.mask = capacity - 1;
+
+        parsersByExtension.forEach((extension, parser) -> {
+            int slot = hash(extension, 0, extension.length()) & mask;
+            while (extensions[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            extensions[slot] = extension;
+            parsers[slot] = parser;
+        });
+    }
+
+    /**
+     * Find the parser registered for the last extension of the file name
+     */
+    Parser lookup(Path filePath) {
+        String path = filePath.toString();
+        int dot = path.lastIndexOf('.');
+        int separator = Math.max(path.lastIndexOf('/'), path.lastIndexOf(File.separatorChar));
+        if (dot <= separator + 1) {
+            // No extension, or a dotfile such as ".gitignore"
+            return null;
+        }
+
+        int length = path.length() - dot;
+        int slot = hash(path, dot, path.length()) & mask;
+        String extension;
+        while ((extension = extensions[slot]) != null) {
+            if (extension.length() == length && extension.regionMatches(true, 0, path, dot, length)) {
+                return parsers[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int hash(String value, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + Character.toLowerCase(value.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+}
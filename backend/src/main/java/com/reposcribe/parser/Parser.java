@@ -25,10 +25,31 @@ public interface Parser {
      */
     boolean canParse(Path filePath);
     
+    /**
+     * Version of the parser's output format; bump it when parsing changes so
+     * cached results from older versions are not reused
+     */
+    default String getVersion() {
+        return "1";
+    }
+
+    /**
+     * Whether the result depends on the file name as well as the content,
+     * e.g. because a module is named after its file
+     */
+    default boolean isNamedAfterFile() {
+        return false;
+    }
+
     /**
      * Parse a single file
      */
     ClassInfo parseFile(Path filePath) throws Exception;
+
+    /**
+     * Parse source text that was already read for the given file
+     */
+    ClassInfo parseSource(Path filePath, String source) throws Exception;
     
     /**
      * Find all files of this language in a directory
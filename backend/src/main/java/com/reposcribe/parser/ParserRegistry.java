@@ -12,12 +12,22 @@ import java.util.stream.Collectors;
 public class ParserRegistry {
 
     private final Map<String, Parser> parsers = new HashMap<>();
+    private volatile ExtensionIndex extensionIndex = ExtensionIndex.EMPTY;
 
     /**
-     * Register a parser
+     * Register a parser and rebuild the extension index
      */
-    public void registerParser(Parser parser) {
+    public synchronized void registerParser(Parser parser) {
         parsers.put(parser.getLanguage(), parser);
+
+        Map<String, Parser> parsersByExtension = new HashMap<>();
+        for (Parser registered : parsers.values()) {
+            for (String extension : registered.getSupportedExtensions()) {
+                String normalized = extension.toLowerCase();
+                parsersByExtension.put(normalized.startsWith(".") ? normalized : "." + normalized, registered);
+            }
+        }
+        extensionIndex = new ExtensionIndex(parsersByExtension);
     }
 
     /**
@@ -28,15 +38,10 @@ public class ParserRegistry {
     }
 
     /**
-     * Get parser for a specific file
+     * Get parser for a specific file by its extension
      */
     public Parser getParserForFile(Path filePath) {
-        for (Parser parser : parsers.values()) {
-            if (parser.canParse(filePath)) {
-                return parser;
-            }
-        }
-        return null;
+        return extensionIndex.lookup(filePath);
     }
 
     /**
@@ -0,0 +1,124 @@
+package com.reposcribe.parser;
+
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Walks a source tree once and routes every file to the parser registered for
+ * its extension. Ignored directories are pruned for all languages.
+ */
+@Service
+public class SourceFileScanner {
+
+    /**
+     * Directory names that never contain sources worth documenting
+     */
+    public static final Set<String> IGNORED_DIRECTORIES = Set.of(
+        ".git", "node_modules", "venv", ".venv", "__pycache__", "target", "build"
+    );
+
+    private final ParserRegistry parserRegistry;
+
+    public SourceFileScanner(ParserRegistry parserRegistry) {
+        this.parserRegistry = parserRegistry;
+    }
+
+    /**
+     * Walk the directory once and group files by the parser that handles them
+     */
+    public Map<Parser, List<Path>> scan(Path directory) {
+        Map<Parser, List<Path>> filesByParser = new LinkedHashMap<>();
+        for (Parser parser : parserRegistry.getAllParsers().values()) {
+            filesByParser.put(parser, new ArrayList<>());
+        }
+
+        walk(directory, file -> {
+            Parser parser = parserRegistry.getParserForFile(file);
+            if (parser != null) {
+                filesByParser.computeIfAbsent(parser, p -> new ArrayList<>()).add(file);
+            }
+        });
+
+        return filesByParser;
+    }
+
+    /**
+     * Find files under a directory matching a filter, skipping ignored directories
+     */
+    public static List<Path> findFiles(Path directory, Predicate<Path> filter) {
+        List<Path> files = new ArrayList<>();
+        walk(directory, file -> {
+            if (filter.test(file)) {
+                files.add(file);
+            }
+        });
+        return files;
+    }
+
+    /**
+     * Check whether a directory name should be pruned from the walk
+     */
+    public static boolean isIgnoredDirectory(String name) {
+        return IGNORED_DIRECTORIES.contains(name);
+    }
+
+    /**
+     * Check whether a relative path lies inside an ignored directory
+     */
+    public static boolean isInIgnoredDirectory(Path relativePath) {
+        for (int i = 0; i < relativePath.getNameCount() - 1; i++) {
+            if (isIgnoredDirectory(relativePath.getName(i).toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void walk(Path directory, Consumer<Path> visitor) {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    Path name = dir.getFileName();
+                    if (!dir.equals(directory) && name != null && isIgnoredDirectory(name.toString())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        visitor.accept(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    // Unreadable entries are skipped, as listFiles() did before
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Failed to scan " + directory + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.reposcribe.parser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Supplies the content of source files that do not live on the local file system,
+ * such as blobs in a git object database
+ */
+@FunctionalInterface
+public interface SourceReader {
+
+    /**
+     * Read the raw bytes of a source file
+     * @param file path of the file below the analyzed root
+     */
+    byte[] read(Path file) throws IOException;
+}
@@ -1,21 +1,72 @@
 package com.reposcribe.parser;
 
+import com.reposcribe.parser.cache.ParseCache;
+import com.reposcribe.parser.cache.ParseIndex;
 import com.reposcribe.parser.model.ClassInfo;
+import com.reposcribe.parser.model.DirectoryAnalysis;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 @Service
 public class UnifiedParserService {
 
+    // Below this many files the fork-join overhead outweighs the speedup
+    private static final int PARALLEL_THRESHOLD = 16;
+
     private final ParserRegistry parserRegistry;
+    private final SourceFileScanner fileScanner;
+    private final ParseCache parseCache;
+    private final ParseIndex parseIndex;
+    private final boolean parallelEnabled;
+    private final ForkJoinPool parsePool;
+    private final ExecutorService pipelineExecutor;
+    private final int pipelineWorkers;
+    private final int pipelineQueueCapacity;
 
-    public UnifiedParserService(ParserRegistry parserRegistry) {
+    public UnifiedParserService(
+            ParserRegistry parserRegistry,
+            SourceFileScanner fileScanner,
+            ParseCache parseCache,
+            ParseIndex parseIndex,
+            @Value("${parser.parallel.enabled:true}") boolean parallelEnabled,
+            @Value("${parser.parallel.pool-size:0}") int poolSize,
+            @Value("${parser.pipeline.workers:0}") int pipelineWorkers,
+            @Value("${parser.pipeline.queue-capacity:256}") int pipelineQueueCapacity) {
         this.parserRegistry = parserRegistry;
+        this.fileScanner = fileScanner;
+        this.parseCache = parseCache;
+        this.parseIndex = parseIndex;
+        this.parallelEnabled = parallelEnabled;
+        int parallelism = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.parsePool = new ForkJoinPool(parallelism);
+        // Pipeline workers block on their queue, so they get their own threads rather than the fork-join pool
+        this.pipelineExecutor = Executors.newCachedThreadPool();
+        this.pipelineWorkers = pipelineWorkers > 0 ? pipelineWorkers : parallelism;
+        this.pipelineQueueCapacity = pipelineQueueCapacity;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parsePool.shutdown();
+        pipelineExecutor.shutdownNow();
     }
 
     /**
@@ -30,67 +81,273 @@ public class UnifiedParserService {
             );
         }
 
-        return parser.parseFile(filePath);
+        return parseWithCache(parser, filePath);
     }
 
     /**
-     * Parse all files in a directory
+     * Parse a file, reusing the result from the in-memory cache or the
+     * persistent index when its content was seen before
      */
-    public Map<String, List<ClassInfo>> parseDirectory(Path directory) throws Exception {
-        Map<String, List<ClassInfo>> results = new HashMap<>();
+    private ClassInfo parseWithCache(Parser parser, Path filePath) throws Exception {
+        if (!parseCache.isEnabled() && !parseIndex.isEnabled()) {
+            return parser.parseFile(filePath);
+        }
+
+        return parseContent(parser, filePath, Files.readAllBytes(filePath));
+    }
+
+    /**
+     * Parse source content that was already read, going through the same caches as files on disk
+     */
+    private ClassInfo parseContent(Parser parser, Path filePath, byte[] content) throws Exception {
+        if (!parseCache.isEnabled() && !parseIndex.isEnabled()) {
+            return parser.parseSource(filePath, new String(content, StandardCharsets.UTF_8));
+        }
 
+        String key = ParseCache.key(content, parser, filePath);
+        ClassInfo cached = parseCache.get(key, filePath.toString());
+        if (cached != null) {
+            return cached;
+        }
+
+        ClassInfo indexed = parseIndex.get(key, filePath.toString());
+        if (indexed != null) {
+            parseCache.put(key, indexed, content.length);
+            return indexed;
+        }
+
+        ClassInfo classInfo = parser.parseSource(filePath, new String(content, StandardCharsets.UTF_8));
+        parseCache.put(key, classInfo, content.length);
+        parseIndex.put(key, classInfo);
+        return classInfo;
+    }
+
+    /**
+     * Walk and parse a directory once, collecting classes and statistics together
+     */
+    public DirectoryAnalysis analyzeDirectory(Path directory) {
+        Map<Parser, List<Path>> filesByParser = fileScanner.scan(directory);
+        return analyze(filesByParser, null);
+    }
+
+    /**
+     * Parse sources that are not on the local file system, such as the blobs of a git commit.
+     * Class file paths are reported below the given root, as for a directory analysis.
+     * @param relativePaths paths of the candidate files relative to the root
+     * @param reader supplies the content of each file
+     */
+    public DirectoryAnalysis analyzeSources(Path root, Collection<String> relativePaths, SourceReader reader) {
+        Map<Parser, List<Path>> filesByParser = new LinkedHashMap<>();
         for (Parser parser : parserRegistry.getAllParsers().values()) {
-            List<Path> files = parser.findFiles(directory);
-            List<ClassInfo> classInfos = new ArrayList<>();
+            filesByParser.put(parser, new ArrayList<>());
+        }
 
-            for (Path file : files) {
-                try {
-                    ClassInfo classInfo = parser.parseFile(file);
-                    classInfos.add(classInfo);
-                } catch (Exception e) {
-                    System.err.println("Failed to parse " + file + ": " + e.getMessage());
-                }
+        for (String relativePath : relativePaths) {
+            Parser parser = findParser(Path.of(relativePath));
+            if (parser != null) {
+                filesByParser.computeIfAbsent(parser, p -> new ArrayList<>()).add(root.resolve(relativePath));
             }
+        }
 
-            if (!classInfos.isEmpty()) {
-                results.put(parser.getLanguage(), classInfos);
-            }
+        return analyze(filesByParser, reader);
+    }
+
+    private DirectoryAnalysis analyze(Map<Parser, List<Path>> filesByParser, SourceReader reader) {
+        DirectoryAnalysis analysis = new DirectoryAnalysis(parserRegistry.getSupportedLanguages());
+
+        for (Map.Entry<Parser, List<Path>> entry : filesByParser.entrySet()) {
+            Parser parser = entry.getKey();
+            List<Path> files = entry.getValue();
+            List<ClassInfo> classInfos = parseFiles(parser, files, reader);
+
+            analysis.setFileCount(parser.getLanguage(), files.size());
+            analysis.setClasses(parser.getLanguage(), classInfos);
         }
 
-        return results;
+        return analysis;
     }
 
     /**
-     * Get statistics about files in a directory
+     * Start parsing files as they are produced, e.g. while an upload is still being extracted.
+     * Submit each finished file to the pipeline, then call {@link AnalysisPipeline#finish()}.
      */
-    public Map<String, Object> getDirectoryStatistics(Path directory) {
-        Map<String, Object> stats = new HashMap<>();
-        Map<String, Integer> fileCounts = new HashMap<>();
-        Map<String, Integer> classCounts = new HashMap<>();
+    public AnalysisPipeline startPipeline() {
+        return new AnalysisPipeline(
+            parserRegistry,
+            (parser, file) -> parseQuietly(parser, file, null),
+            pipelineExecutor,
+            pipelineWorkers,
+            pipelineQueueCapacity
+        );
+    }
+
+    /**
+     * Update a previous analysis of a directory after some of its files changed.
+     * Only the added and modified files are parsed; results for all other files
+     * are reused from the previous analysis.
+     * @param addedPaths paths relative to the directory
+     * @param modifiedPaths paths relative to the directory
+     * @param deletedPaths paths relative to the directory
+     */
+    public DirectoryAnalysis reanalyzeDirectory(
+            DirectoryAnalysis previous,
+            Path directory,
+            Collection<String> addedPaths,
+            Collection<String> modifiedPaths,
+            Collection<String> deletedPaths) {
+        return reanalyze(previous, directory, addedPaths, modifiedPaths, deletedPaths, null);
+    }
+
+    /**
+     * Update a previous analysis of sources read through a {@link SourceReader}
+     * after some of them changed
+     * @see #reanalyzeDirectory(DirectoryAnalysis, Path, Collection, Collection, Collection)
+     */
+    public DirectoryAnalysis reanalyzeSources(
+            DirectoryAnalysis previous,
+            Path root,
+            Collection<String> addedPaths,
+            Collection<String> modifiedPaths,
+            Collection<String> deletedPaths,
+            SourceReader reader) {
+        return reanalyze(previous, root, addedPaths, modifiedPaths, deletedPaths, reader);
+    }
+
+    private DirectoryAnalysis reanalyze(
+            DirectoryAnalysis previous,
+            Path directory,
+            Collection<String> addedPaths,
+            Collection<String> modifiedPaths,
+            Collection<String> deletedPaths,
+            SourceReader reader) {
+
+        Set<String> staleFiles = new HashSet<>();
+        Map<String, Integer> fileCounts = new LinkedHashMap<>(previous.getFileCounts());
+        Map<Parser, List<Path>> filesToParse = new LinkedHashMap<>();
+
+        for (String relativePath : deletedPaths) {
+            Path file = directory.resolve(relativePath);
+            staleFiles.add(file.toString());
+            Parser parser = findParser(Path.of(relativePath));
+            if (parser != null) {
+                fileCounts.merge(parser.getLanguage(), -1, Integer::sum);
+            }
+        }
+        for (String relativePath : modifiedPaths) {
+            Path file = directory.resolve(relativePath);
+            staleFiles.add(file.toString());
+            Parser parser = findParser(Path.of(relativePath));
+            if (parser != null) {
+                filesToParse.computeIfAbsent(parser, p -> new ArrayList<>()).add(file);
+            }
+        }
+        for (String relativePath : addedPaths) {
+            Path file = directory.resolve(relativePath);
+            staleFiles.add(file.toString());
+            Parser parser = findParser(Path.of(relativePath));
+            if (parser != null) {
+                filesToParse.computeIfAbsent(parser, p -> new ArrayList<>()).add(file);
+                fileCounts.merge(parser.getLanguage(), 1, Integer::sum);
+            }
+        }
+
+        DirectoryAnalysis analysis = new DirectoryAnalysis(parserRegistry.getSupportedLanguages());
+        fileCounts.forEach((language, count) -> analysis.setFileCount(language, Math.max(0, count)));
 
         for (Parser parser : parserRegistry.getAllParsers().values()) {
-            List<Path> files = parser.findFiles(directory);
-            fileCounts.put(parser.getLanguage(), files.size());
+            List<ClassInfo> classInfos = new ArrayList<>();
+            for (ClassInfo classInfo : previous.getParsedClasses().getOrDefault(parser.getLanguage(), List.of())) {
+                if (!staleFiles.contains(classInfo.getFilePath())) {
+                    classInfos.add(classInfo);
+                }
+            }
+            classInfos.addAll(parseFiles(parser, filesToParse.getOrDefault(parser, List.of()), reader));
+            analysis.setClasses(parser.getLanguage(), classInfos);
+        }
+
+        return analysis;
+    }
+
+    /**
+     * Parser for a path relative to a scanned root, honouring the scanner's ignored directories
+     */
+    private Parser findParser(Path relativePath) {
+        if (SourceFileScanner.isInIgnoredDirectory(relativePath)) {
+            return null;
+        }
+        return parserRegistry.getParserForFile(relativePath);
+    }
 
-            int classCount = 0;
+    /**
+     * Parse files with the given parser, fanning out across the parse pool for
+     * large batches. Results keep the order of the input list; files that fail
+     * to parse are skipped. Files are read from disk unless a reader is given.
+     */
+    private List<ClassInfo> parseFiles(Parser parser, List<Path> files, SourceReader reader) {
+        if (!parallelEnabled || parsePool.getParallelism() == 1 || files.size() < PARALLEL_THRESHOLD) {
+            List<ClassInfo> classInfos = new ArrayList<>();
             for (Path file : files) {
-                try {
-                    ClassInfo classInfo = parser.parseFile(file);
-                    if (classInfo.getName() != null) {
-                        classCount++;
-                    }
-                } catch (Exception e) {
-                    // Ignore parsing errors for statistics
+                ClassInfo classInfo = parseQuietly(parser, file, reader);
+                if (classInfo != null) {
+                    classInfos.add(classInfo);
                 }
             }
-            classCounts.put(parser.getLanguage(), classCount);
+            return classInfos;
         }
 
-        stats.put("fileCounts", fileCounts);
-        stats.put("classCounts", classCounts);
-        stats.put("supportedLanguages", parserRegistry.getSupportedLanguages());
+        try {
+            return parsePool.submit(() -> files.parallelStream()
+                .map(file -> parseQuietly(parser, file, reader))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList())
+            ).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parsing was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Parallel parsing failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private ClassInfo parseQuietly(Parser parser, Path file, SourceReader reader) {
+        try {
+            if (reader != null) {
+                return parseContent(parser, file, reader.read(file));
+            }
+            return parseWithCache(parser, file);
+        } catch (Exception e) {
+            System.err.println("Failed to parse " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Parse all files in a directory
+     */
+    public Map<String, List<ClassInfo>> parseDirectory(Path directory) throws Exception {
+        return analyzeDirectory(directory).getParsedClasses();
+    }
 
-        return stats;
+    /**
+     * Get statistics about files in a directory.
+     * Prefer {@link #analyzeDirectory(Path)} when the parsed classes are also needed.
+     */
+    public Map<String, Object> getDirectoryStatistics(Path directory) {
+        return analyzeDirectory(directory).getStatistics();
+    }
+
+    /**
+     * Parse cache hit/miss counters
+     */
+    public Map<String, Object> getCacheStatistics() {
+        return parseCache.getStatistics();
+    }
+
+    /**
+     * Persistent parse index counters
+     */
+    public Map<String, Object> getIndexStatistics() {
+        return parseIndex.getStatistics();
     }
 
     /**
@@ -0,0 +1,162 @@
+package com.reposcribe.parser.cache;
+
+import com.reposcribe.parser.model.ClassInfo;
+import com.reposcribe.parser.model.FieldInfo;
+import com.reposcribe.parser.model.MethodInfo;
+import com.reposcribe.parser.model.ParameterInfo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of the parser model for the on-disk parse index.
+ * The file path is not stored; it is bound again when an entry is read back.
+ */
+final class ClassInfoCodec {
+
+    // Bump when the layout below or the meaning of index keys changes; older records are then ignored
+    static final byte FORMAT_VERSION = 2;
+
+    private ClassInfoCodec() {
+    }
+
+    static byte[] encode(ClassInfo classInfo) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeByte(FORMAT_VERSION);
+        writeString(out, classInfo.getName());
+        writeString(out, classInfo.getPackageName());
+        out.writeBoolean(classInfo.isInterface());
+        out.writeBoolean(classInfo.isAbstract());
+        writeStrings(out, classInfo.getModifiers());
+        writeStrings(out, classInfo.getAnnotations());
+        writeStrings(out, classInfo.getSuperClasses());
+        writeStrings(out, classInfo.getInterfaces());
+        writeString(out, classInfo.getJavadoc());
+
+        out.writeInt(classInfo.getMethods().size());
+        for (MethodInfo method : classInfo.getMethods()) {
+            writeString(out, method.getName());
+            writeString(out, method.getReturnType());
+            writeStrings(out, method.getModifiers());
+            writeStrings(out, method.getAnnotations());
+            writeString(out, method.getJavadoc());
+            out.writeBoolean(method.isConstructor());
+            out.writeInt(method.getParameters().size());
+            for (ParameterInfo parameter : method.getParameters()) {
+                writeString(out, parameter.getName());
+                writeString(out, parameter.getType());
+                writeStrings(out, parameter.getAnnotations());
+            }
+        }
+
+        out.writeInt(classInfo.getFields().size());
+        for (FieldInfo field : classInfo.getFields()) {
+            writeString(out, field.getName());
+            writeString(out, field.getType());
+            writeStrings(out, field.getModifiers());
+            writeStrings(out, field.getAnnotations());
+            writeString(out, field.getJavadoc());
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a record, or return null if it was written in another format version
+     */
+    static ClassInfo decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readByte() != FORMAT_VERSION) {
+            return null;
+        }
+
+        ClassInfo classInfo = new ClassInfo();
+        classInfo.setName(readString(in));
+        classInfo.setPackageName(readString(in));
+        classInfo.setInterface(in.readBoolean());
+        classInfo.setAbstract(in.readBoolean());
+        classInfo.setModifiers(readStrings(in));
+        classInfo.setAnnotations(readStrings(in));
+        classInfo.setSuperClasses(readStrings(in));
+        classInfo.setInterfaces(readStrings(in));
+        classInfo.setJavadoc(readString(in));
+
+        int methodCount = in.readInt();
+        for (int i = 0; i < methodCount; i++) {
+            MethodInfo method = new MethodInfo();
+            method.setName(readString(in));
+            method.setReturnType(readString(in));
+            method.setModifiers(readStrings(in));
+            method.setAnnotations(readStrings(in));
+            method.setJavadoc(readString(in));
+            method.setConstructor(in.readBoolean());
+            int parameterCount = in.readInt();
+            for (int j = 0; j < parameterCount; j++) {
+                ParameterInfo parameter = new ParameterInfo();
+                parameter.setName(readString(in));
+                parameter.setType(readString(in));
+                parameter.setAnnotations(readStrings(in));
+                method.getParameters().add(parameter);
+            }
+            classInfo.getMethods().add(method);
+        }
+
+        int fieldCount = in.readInt();
+        for (int i = 0; i < fieldCount; i++) {
+            FieldInfo field = new FieldInfo();
+            field.setName(readString(in));
+            field.setType(readString(in));
+            field.setModifiers(readStrings(in));
+            field.setAnnotations(readStrings(in));
+            field.setJavadoc(readString(in));
+            classInfo.getFields().add(field);
+        }
+
+        return classInfo;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,162 @@
+package com.reposcribe.parser.cache;
+
+import com.reposcribe.parser.Parser;
+import com.reposcribe.parser.model.ClassInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory cache of parse results keyed by the SHA-256 of the file
+ * content plus the parser language and version. For parsers that name their
+ * result after the file, the file name is hashed in too. Entries are weighted by the
+ * size of the source they were parsed from and evicted least-recently-used
+ * once the total weight exceeds the configured budget.
+ */
+@Service
+public class ParseCache {
+
+    // Bump when the key layout changes so entries stored under an older layout are never served
+    private static final int KEY_VERSION = 2;
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long currentBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ParseCache(
+            @Value("${parser.cache.enabled:true}") boolean enabled,
+            @Value("${parser.cache.max-bytes:67108864}") long maxBytes) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Build the cache key for the content of a file handled by a parser
+     */
+    public static String key(byte[] content, Parser parser, Path filePath) {
+        String hash = parser.isNamedAfterFile()
+            ? contentHash(content, filePath.getFileName().toString().getBytes(StandardCharsets.UTF_8))
+            : contentHash(content);
+        return KEY_VERSION + ":" + hash + ":" + parser.getLanguage() + ":" + parser.getVersion();
+    }
+
+    /**
+     * Hex-encoded SHA-256 of the content, followed by each extra part after a zero byte
+     */
+    public static String contentHash(byte[] content, byte[]... extraParts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content);
+            for (byte[] part : extraParts) {
+                digest.update((byte) 0);
+                digest.update(part);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Look up a cached result; returns a private copy bound to the given file path
+     */
+    public ClassInfo get(String key, String filePath) {
+        if (!enabled) {
+            return null;
+        }
+
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        ClassInfo copy = new ClassInfo(entry.classInfo);
+        copy.setFilePath(filePath);
+        return copy;
+    }
+
+    /**
+     * Store a parse result; the weight is the size of the parsed source in bytes
+     */
+    public void put(String key, ClassInfo classInfo, long weight) {
+        if (!enabled || weight > maxBytes) {
+            return;
+        }
+
+        Entry entry = new Entry(new ClassInfo(classInfo), weight);
+        synchronized (this) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                currentBytes -= previous.weight;
+            }
+            currentBytes += weight;
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && eldest.hasNext()) {
+                currentBytes -= eldest.next().getValue().weight;
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    /**
+     * Hit/miss counters and current occupancy
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        stats.put("enabled", enabled);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        synchronized (this) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", currentBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+
+    private static final class Entry {
+        private final ClassInfo classInfo;
+        private final long weight;
+
+        private Entry(ClassInfo classInfo, long weight) {
+            this.classInfo = classInfo;
+            this.weight = weight;
+        }
+    }
+}
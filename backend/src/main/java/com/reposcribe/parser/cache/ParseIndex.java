@@ -0,0 +1,386 @@
+package com.reposcribe.parser.cache;
+
+import com.reposcribe.parser.model.ClassInfo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Persistent parse index that survives restarts. Parse results are appended
+ * to a single segment file keyed by content hash; an in-memory table of
+ * offsets is rebuilt from the segment on startup. When the segment grows past
+ * its size cap it is compacted, keeping the most recently used entries.
+ * The directory is locked while the index is open; another process finding it
+ * locked runs without the index instead of interleaving its appends.
+ *
+ * Segment layout: magic and codec version, then records of
+ * [int keyLength][key][int payloadLength][payload encoded by ClassInfoCodec].
+ * A segment with another magic or version is discarded and started anew.
+ */
+@Service
+public class ParseIndex {
+
+    private static final int MAGIC = 0x52535049; // "RSPI"
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_FILE = "parse-index.seg";
+    private static final String LOCK_FILE = "parse-index.lock";
+    // Compaction shrinks the segment to this fraction of the cap so it does not run on every append
+    private static final double COMPACTION_TARGET = 0.75;
+
+    private final boolean enabled;
+    private final Path indexDirectory;
+    private final long maxBytes;
+
+    private final Map<String, Location> locations = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong accessClock = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+
+    private volatile FileChannel channel;
+    private volatile long segmentBytes;
+    private FileChannel lockChannel;
+    private FileLock fileLock;
+
+    public ParseIndex(
+            @Value("${parser.index.enabled:true}") boolean enabled,
+            @Value("${parser.index.dir:${user.home}/.reposcribe/parse-index}") String indexDirectory,
+            @Value("${parser.index.max-bytes:268435456}") long maxBytes) {
+        this.enabled = enabled;
+        this.indexDirectory = Paths.get(indexDirectory);
+        this.maxBytes = maxBytes;
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(indexDirectory);
+            if (!lockDirectory()) {
+                System.err.println("Parse index disabled, " + indexDirectory + " is in use by another process");
+                closeQuietly();
+                return;
+            }
+
+            Path segment = indexDirectory.resolve(SEGMENT_FILE);
+            channel = FileChannel.open(segment,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (!hasCurrentHeader()) {
+                if (channel.size() > 0) {
+                    System.err.println("Parse index " + segment + " has an unknown format, starting a new one");
+                }
+                channel.truncate(0);
+                channel.write(header(), 0);
+            }
+            segmentBytes = loadLocations(segment);
+            // Drop any partially written record left by a crash
+            channel.truncate(segmentBytes);
+        } catch (IOException e) {
+            System.err.println("Parse index disabled, failed to open " + indexDirectory + ": " + e.getMessage());
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Take an exclusive lock on the index directory for the lifetime of this index
+     * @return false if another process, or another index in this JVM, holds it
+     */
+    private boolean lockDirectory() throws IOException {
+        lockChannel = FileChannel.open(indexDirectory.resolve(LOCK_FILE),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            fileLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null;
+        }
+        return fileLock != null;
+    }
+
+    private boolean hasCurrentHeader() throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                return false;
+            }
+        }
+        return header.getInt(0) == MAGIC && header.getInt(4) == ClassInfoCodec.FORMAT_VERSION;
+    }
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(ClassInfoCodec.FORMAT_VERSION).flip();
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            closeQuietly();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && channel != null;
+    }
+
+    /**
+     * Read a stored parse result, binding it to the given file path
+     */
+    public ClassInfo get(String key, String filePath) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            Location location = locations.get(key);
+            if (location == null || channel == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+
+            ClassInfo classInfo = ClassInfoCodec.decode(readPayload(location));
+            if (classInfo == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            location.lastAccess = accessClock.incrementAndGet();
+            hits.incrementAndGet();
+            classInfo.setFilePath(filePath);
+            return classInfo;
+        } catch (IOException e) {
+            locations.remove(key);
+            misses.incrementAndGet();
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Append a parse result unless the key is already stored
+     */
+    public void put(String key, ClassInfo classInfo) {
+        if (!isEnabled() || locations.containsKey(key)) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (channel == null || locations.containsKey(key)) {
+                return;
+            }
+
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            byte[] payload = ClassInfoCodec.encode(classInfo);
+            ByteBuffer record = ByteBuffer.allocate(8 + keyBytes.length + payload.length);
+            record.putInt(keyBytes.length).put(keyBytes).putInt(payload.length).put(payload).flip();
+
+            long recordOffset = segmentBytes;
+            while (record.hasRemaining()) {
+                segmentBytes += channel.write(record, segmentBytes);
+            }
+            long payloadOffset = recordOffset + 8 + keyBytes.length;
+            locations.put(key, new Location(payloadOffset, payload.length, accessClock.incrementAndGet()));
+
+            if (segmentBytes > maxBytes) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write parse index entry: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrite the segment with the most recently used entries that fit the target size.
+     * Callers must hold the write lock.
+     */
+    private void compact() throws IOException {
+        long targetBytes = (long) (maxBytes * COMPACTION_TARGET);
+        List<Map.Entry<String, Location>> byRecency = new ArrayList<>(locations.entrySet());
+        byRecency.sort(Comparator.comparingLong(
+            (Map.Entry<String, Location> entry) -> entry.getValue().lastAccess).reversed());
+
+        Path segment = indexDirectory.resolve(SEGMENT_FILE);
+        Path compacted = indexDirectory.resolve(SEGMENT_FILE + ".compact");
+        Map<String, Location> kept = new HashMap<>();
+        long written = HEADER_BYTES;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(compacted)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(ClassInfoCodec.FORMAT_VERSION);
+            for (Map.Entry<String, Location> entry : byRecency) {
+                Location location = entry.getValue();
+                byte[] keyBytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                long recordBytes = 8L + keyBytes.length + location.length;
+                if (written + recordBytes > targetBytes) {
+                    continue;
+                }
+
+                out.writeInt(keyBytes.length);
+                out.write(keyBytes);
+                out.writeInt(location.length);
+                out.write(readPayload(location));
+                kept.put(entry.getKey(), new Location(written + 8 + keyBytes.length, location.length, location.lastAccess));
+                written += recordBytes;
+            }
+        }
+
+        FileChannel old = channel;
+        channel = null;
+        old.close();
+        boolean moved = false;
+        try {
+            Files.move(compacted, segment, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moved = true;
+        } finally {
+            // Reopen the compacted segment, or the original one if the move failed.
+            // If even that fails the channel stays null and the index turns itself off.
+            channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (!moved) {
+                Files.deleteIfExists(compacted);
+            }
+        }
+        segmentBytes = written;
+        locations.clear();
+        locations.putAll(kept);
+        compactions.incrementAndGet();
+    }
+
+    private byte[] readPayload(Location location) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(location.length);
+        long position = location.offset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Truncated parse index record");
+            }
+            position += read;
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Scan the segment and rebuild the key to offset table.
+     * Returns the length of the valid prefix of the segment.
+     */
+    private long loadLocations(Path segment) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            in.skipNBytes(HEADER_BYTES);
+
+            long fileBytes = Files.size(segment);
+            long position = HEADER_BYTES;
+            while (true) {
+                try {
+                    int keyLength = in.readInt();
+                    if (keyLength <= 0 || keyLength > 1024) {
+                        return position;
+                    }
+                    byte[] keyBytes = new byte[keyLength];
+                    in.readFully(keyBytes);
+                    int payloadLength = in.readInt();
+                    if (payloadLength < 0 || position + 8 + keyLength + payloadLength > fileBytes) {
+                        return position;
+                    }
+                    in.skipNBytes(payloadLength);
+
+                    long payloadOffset = position + 8 + keyLength;
+                    // Later position means more recently written
+                    locations.put(new String(keyBytes, StandardCharsets.UTF_8),
+                        new Location(payloadOffset, payloadLength, accessClock.incrementAndGet()));
+                    position = payloadOffset + payloadLength;
+                } catch (EOFException e) {
+                    return position;
+                }
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            if (channel != null) {
+                channel.force(true);
+                channel.close();
+            }
+        } catch (IOException e) {
+            // Ignore close errors
+        }
+        channel = null;
+
+        try {
+            if (fileLock != null) {
+                fileLock.release();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            // Ignore close errors
+        }
+        fileLock = null;
+        lockChannel = null;
+    }
+
+    /**
+     * Hit/miss counters and segment size
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("entries", locations.size());
+        stats.put("bytes", segmentBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("compactions", compactions.get());
+        return stats;
+    }
+
+    private static final class Location {
+        private final long offset;
+        private final int length;
+        private volatile long lastAccess;
+
+        private Location(long offset, int length, long lastAccess) {
+            this.offset = offset;
+            this.length = length;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
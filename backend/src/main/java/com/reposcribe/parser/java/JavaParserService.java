@@ -1,6 +1,7 @@
 package com.reposcribe.parser.java;
 
 import com.reposcribe.parser.Parser;
+import com.reposcribe.parser.SourceFileScanner;
 import com.reposcribe.parser.model.*;
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParserConfiguration;
@@ -11,7 +12,6 @@ import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.Parameter;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -21,20 +21,30 @@ import java.util.List;
 @Service
 public class JavaParserService implements Parser {
 
-    private final JavaParser javaParser;
+    // JavaParser instances are not thread-safe, so each parse worker gets its own
+    private final ThreadLocal<JavaParser> javaParser;
 
     public JavaParserService() {
-        ParserConfiguration config = new ParserConfiguration();
-        this.javaParser = new JavaParser(config);
+        this.javaParser = ThreadLocal.withInitial(() -> new JavaParser(new ParserConfiguration()));
     }
 
     /**
      * Parse a single Java file
      */
     public ClassInfo parseJavaFile(Path filePath) throws FileNotFoundException {
-        File file = filePath.toFile();
-        CompilationUnit cu = javaParser.parse(file).getResult().orElseThrow();
+        CompilationUnit cu = javaParser.get().parse(filePath.toFile()).getResult().orElseThrow();
+        return extractClassInfo(cu, filePath);
+    }
+
+    /**
+     * Parse Java source text
+     */
+    public ClassInfo parseJavaSource(String source, Path filePath) {
+        CompilationUnit cu = javaParser.get().parse(source).getResult().orElseThrow();
+        return extractClassInfo(cu, filePath);
+    }
 
+    private ClassInfo extractClassInfo(CompilationUnit cu, Path filePath) {
         ClassInfo classInfo = new ClassInfo();
         classInfo.setFilePath(filePath.toString());
 
@@ -185,22 +195,7 @@ public class JavaParserService implements Parser {
      * Find all Java files in a directory recursively
      */
     public List<Path> findJavaFiles(Path directory) {
-        List<Path> javaFiles = new ArrayList<>();
-        findJavaFilesRecursive(directory.toFile(), javaFiles);
-        return javaFiles;
-    }
-
-    private void findJavaFilesRecursive(File directory, List<Path> javaFiles) {
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    findJavaFilesRecursive(file, javaFiles);
-                } else if (file.getName().endsWith(".java")) {
-                    javaFiles.add(file.toPath());
-                }
-            }
-        }
+        return SourceFileScanner.findFiles(directory, this::canParse);
     }
 
     @Override
@@ -224,6 +219,11 @@ public class JavaParserService implements Parser {
         return parseJavaFile(filePath);
     }
 
+    @Override
+    public ClassInfo parseSource(Path filePath, String source) {
+        return parseJavaSource(source, filePath);
+    }
+
     @Override
     public List<Path> findFiles(Path directory) {
         return findJavaFiles(directory);
@@ -1,13 +1,13 @@
 package com.reposcribe.parser.javascript;
 
 import com.reposcribe.parser.Parser;
+import com.reposcribe.parser.SourceFileScanner;
 import com.reposcribe.parser.model.*;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -55,6 +55,16 @@ public class JavaScriptParserService implements Parser {
         return parseJavaScriptFile(content, filePath);
     }
 
+    @Override
+    public ClassInfo parseSource(Path filePath, String source) {
+        return parseJavaScriptFile(source, filePath);
+    }
+
+    @Override
+    public boolean isNamedAfterFile() {
+        return true;
+    }
+
     @Override
     public List<Path> findFiles(Path directory) {
         return findJavaScriptFiles(directory);
@@ -116,29 +126,7 @@ public class JavaScriptParserService implements Parser {
     }
 
     private List<Path> findJavaScriptFiles(Path directory) {
-        List<Path> jsFiles = new ArrayList<>();
-        findJavaScriptFilesRecursive(directory.toFile(), jsFiles);
-        return jsFiles;
-    }
-
-    private void findJavaScriptFilesRecursive(java.io.File directory, List<Path> jsFiles) {
-        java.io.File[] files = directory.listFiles();
-        if (files != null) {
-            for (java.io.File file : files) {
-                if (file.isDirectory()) {
-                    String dirName = file.getName();
-                    if (!dirName.equals("node_modules") && !dirName.equals(".git")) {
-                        findJavaScriptFilesRecursive(file, jsFiles);
-                    }
-                } else {
-                    String fileName = file.getName().toLowerCase();
-                    if (fileName.endsWith(".js") || fileName.endsWith(".jsx") || 
-                        fileName.endsWith(".ts") || fileName.endsWith(".tsx")) {
-                        jsFiles.add(file.toPath());
-                    }
-                }
-            }
-        }
+        return SourceFileScanner.findFiles(directory, this::canParse);
     }
 }
 
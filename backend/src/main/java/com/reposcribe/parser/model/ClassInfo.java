@@ -26,6 +26,26 @@ public class ClassInfo {
         this.fields = new ArrayList<>();
     }
 
+    /**
+     * Deep copy, so cached parse results are never shared between callers
+     */
+    public ClassInfo(ClassInfo other) {
+        this.name = other.name;
+        this.packageName = other.packageName;
+        this.filePath = other.filePath;
+        this.isInterface = other.isInterface;
+        this.isAbstract = other.isAbstract;
+        this.modifiers = new ArrayList<>(other.modifiers);
+        this.annotations = new ArrayList<>(other.annotations);
+        this.superClasses = new ArrayList<>(other.superClasses);
+        this.interfaces = new ArrayList<>(other.interfaces);
+        this.methods = new ArrayList<>();
+        other.methods.forEach(method -> this.methods.add(new MethodInfo(method)));
+        this.fields = new ArrayList<>();
+        other.fields.forEach(field -> this.fields.add(new FieldInfo(field)));
+        this.javadoc = other.javadoc;
+    }
+
     // Getters and Setters
     public String getName() {
         return name;
@@ -0,0 +1,94 @@
+package com.reposcribe.parser.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a single walk and parse of a directory.
+ * Statistics are derived from the parsed classes instead of re-parsing files.
+ */
+public class DirectoryAnalysis {
+    private final Map<String, List<ClassInfo>> parsedClasses;
+    private final Map<String, Integer> fileCounts;
+    private final List<String> supportedLanguages;
+
+    public DirectoryAnalysis(List<String> supportedLanguages) {
+        this.parsedClasses = new HashMap<>();
+        this.fileCounts = new HashMap<>();
+        this.supportedLanguages = new ArrayList<>(supportedLanguages);
+        supportedLanguages.forEach(language -> fileCounts.put(language, 0));
+    }
+
+    /**
+     * Record the number of files found for a language
+     */
+    public void setFileCount(String language, int count) {
+        fileCounts.put(language, count);
+    }
+
+    /**
+     * Record the classes parsed for a language
+     */
+    public void setClasses(String language, List<ClassInfo> classes) {
+        if (classes.isEmpty()) {
+            parsedClasses.remove(language);
+        } else {
+            parsedClasses.put(language, classes);
+        }
+    }
+
+    /**
+     * Parsed classes grouped by language (languages without results are omitted)
+     */
+    public Map<String, List<ClassInfo>> getParsedClasses() {
+        return parsedClasses;
+    }
+
+    /**
+     * All parsed classes across languages
+     */
+    public List<ClassInfo> getAllClasses() {
+        List<ClassInfo> allClasses = new ArrayList<>();
+        parsedClasses.values().forEach(allClasses::addAll);
+        return allClasses;
+    }
+
+    public Map<String, Integer> getFileCounts() {
+        return fileCounts;
+    }
+
+    /**
+     * Number of named classes per language, computed from the parsed results
+     */
+    public Map<String, Integer> getClassCounts() {
+        Map<String, Integer> classCounts = new HashMap<>();
+        fileCounts.keySet().forEach(language -> classCounts.put(language, 0));
+        parsedClasses.forEach((language, classes) -> {
+            int count = 0;
+            for (ClassInfo classInfo : classes) {
+                if (classInfo.getName() != null) {
+                    count++;
+                }
+            }
+            classCounts.put(language, count);
+        });
+        return classCounts;
+    }
+
+    public List<String> getSupportedLanguages() {
+        return supportedLanguages;
+    }
+
+    /**
+     * Statistics in the shape returned by the analysis and documentation APIs
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("fileCounts", new HashMap<>(fileCounts));
+        stats.put("classCounts", getClassCounts());
+        stats.put("supportedLanguages", new ArrayList<>(supportedLanguages));
+        return stats;
+    }
+}
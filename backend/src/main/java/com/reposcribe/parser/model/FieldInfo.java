@@ -15,6 +15,14 @@ public class FieldInfo {
         this.annotations = new ArrayList<>();
     }
 
+    public FieldInfo(FieldInfo other) {
+        this.name = other.name;
+        this.type = other.type;
+        this.modifiers = new ArrayList<>(other.modifiers);
+        this.annotations = new ArrayList<>(other.annotations);
+        this.javadoc = other.javadoc;
+    }
+
     // Getters and Setters
     public String getName() {
         return name;
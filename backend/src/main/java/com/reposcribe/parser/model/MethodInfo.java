@@ -18,6 +18,17 @@ public class MethodInfo {
         this.parameters = new ArrayList<>();
     }
 
+    public MethodInfo(MethodInfo other) {
+        this.name = other.name;
+        this.returnType = other.returnType;
+        this.modifiers = new ArrayList<>(other.modifiers);
+        this.annotations = new ArrayList<>(other.annotations);
+        this.parameters = new ArrayList<>();
+        other.parameters.forEach(parameter -> this.parameters.add(new ParameterInfo(parameter)));
+        this.javadoc = other.javadoc;
+        this.isConstructor = other.isConstructor;
+    }
+
     // Getters and Setters
     public String getName() {
         return name;
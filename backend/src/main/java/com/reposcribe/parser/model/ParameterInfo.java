@@ -12,6 +12,12 @@ public class ParameterInfo {
         this.annotations = new ArrayList<>();
     }
 
+    public ParameterInfo(ParameterInfo other) {
+        this.name = other.name;
+        this.type = other.type;
+        this.annotations = new ArrayList<>(other.annotations);
+    }
+
     // Getters and Setters
     public String getName() {
         return name;
@@ -1,17 +1,18 @@
 package com.reposcribe.parser.python;
 
 import com.reposcribe.parser.Parser;
+import com.reposcribe.parser.SourceFileScanner;
 import com.reposcribe.parser.model.*;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 public class PythonParserService implements Parser {
@@ -48,6 +49,16 @@ public class PythonParserService implements Parser {
         return parsePythonFile(lines, filePath);
     }
 
+    @Override
+    public ClassInfo parseSource(Path filePath, String source) {
+        return parsePythonFile(source.lines().collect(Collectors.toList()), filePath);
+    }
+
+    @Override
+    public boolean isNamedAfterFile() {
+        return true;
+    }
+
     @Override
     public List<Path> findFiles(Path directory) {
         return findPythonFiles(directory);
@@ -174,25 +185,7 @@ public class PythonParserService implements Parser {
     }
 
     private List<Path> findPythonFiles(Path directory) {
-        List<Path> pythonFiles = new ArrayList<>();
-        findPythonFilesRecursive(directory.toFile(), pythonFiles);
-        return pythonFiles;
-    }
-
-    private void findPythonFilesRecursive(java.io.File directory, List<Path> pythonFiles) {
-        java.io.File[] files = directory.listFiles();
-        if (files != null) {
-            for (java.io.File file : files) {
-                if (file.isDirectory()) {
-                    String dirName = file.getName();
-                    if (!dirName.equals("__pycache__") && !dirName.equals(".git") && !dirName.equals("venv")) {
-                        findPythonFilesRecursive(file, pythonFiles);
-                    }
-                } else if (file.getName().endsWith(".py")) {
-                    pythonFiles.add(file.toPath());
-                }
-            }
-        }
+        return SourceFileScanner.findFiles(directory, this::canParse);
     }
 }
 
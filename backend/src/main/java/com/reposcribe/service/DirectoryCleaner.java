@@ -0,0 +1,157 @@
+package com.reposcribe.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes temporary trees off the request path. Subdirectories are deleted in
+ * parallel on a small fork-join pool, and failures are counted and logged
+ * instead of being silently ignored.
+ */
+@Service
+public class DirectoryCleaner {
+
+    // How long shutdown waits for queued deletions
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final ForkJoinPool deletePool;
+    private final AtomicLong pendingDeletes = new AtomicLong();
+    private final AtomicLong completedDeletes = new AtomicLong();
+    private final AtomicLong bytesReclaimed = new AtomicLong();
+    private final AtomicLong failedPaths = new AtomicLong();
+
+    public DirectoryCleaner(@Value("${session.cleanup.threads:2}") int threads) {
+        this.deletePool = new ForkJoinPool(Math.max(1, threads));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deletePool.shutdown();
+        try {
+            deletePool.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Delete a file or directory tree in the background
+     * @return Number of bytes reclaimed once the deletion has finished
+     */
+    public CompletableFuture<Long> deleteAsync(Path path) {
+        if (path == null || !Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return CompletableFuture.completedFuture(0L);
+        }
+
+        pendingDeletes.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> new DeleteTask(path).invoke(), deletePool)
+            .whenComplete((bytes, error) -> {
+                pendingDeletes.decrementAndGet();
+                completedDeletes.incrementAndGet();
+                if (bytes != null) {
+                    bytesReclaimed.addAndGet(bytes);
+                }
+                if (error != null) {
+                    System.err.println("Failed to delete " + path + ": " + error.getMessage());
+                }
+            });
+    }
+
+    /**
+     * Deletion counters
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingDeletes", pendingDeletes.get());
+        stats.put("completedDeletes", completedDeletes.get());
+        stats.put("bytesReclaimed", bytesReclaimed.get());
+        stats.put("failedPaths", failedPaths.get());
+        return stats;
+    }
+
+    /**
+     * Deletes one directory: files inline, subdirectories as forked subtasks,
+     * then the directory itself. Returns the bytes freed.
+     */
+    private final class DeleteTask extends RecursiveTask<Long> {
+        private final Path path;
+
+        private DeleteTask(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        protected Long compute() {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (IOException e) {
+                // Already gone
+                return 0L;
+            }
+
+            long bytes = 0;
+            if (attributes.isDirectory()) {
+                List<DeleteTask> subdirectories = new ArrayList<>();
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(path)) {
+                    for (Path entry : entries) {
+                        if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                            DeleteTask subdirectory = new DeleteTask(entry);
+                            subdirectory.fork();
+                            subdirectories.add(subdirectory);
+                        } else {
+                            bytes += deleteFile(entry);
+                        }
+                    }
+                } catch (IOException e) {
+                    failed(path, e);
+                }
+                for (DeleteTask subdirectory : subdirectories) {
+                    bytes += subdirectory.join();
+                }
+            } else {
+                bytes += attributes.size();
+            }
+
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                failed(path, e);
+            }
+            return bytes;
+        }
+
+        private long deleteFile(Path file) {
+            try {
+                long size = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).size();
+                Files.deleteIfExists(file);
+                return size;
+            } catch (IOException e) {
+                failed(file, e);
+                return 0;
+            }
+        }
+
+        private void failed(Path failedPath, IOException e) {
+            failedPaths.incrementAndGet();
+            System.err.println("Failed to delete " + failedPath + ": " + e.getMessage());
+        }
+    }
+}
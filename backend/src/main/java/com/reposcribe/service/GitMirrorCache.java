@@ -0,0 +1,330 @@
+package com.reposcribe.service;
+
+import org.eclipse.jgit.api.FetchCommand;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.transport.CredentialsProvider;
+import org.eclipse.jgit.transport.FetchResult;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.URIish;
+import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Local bare mirrors of remote repositories, keyed by normalized URL.
+ * Sessions borrow objects from a mirror through git alternates instead of
+ * downloading the repository again. Mirrors are evicted least-recently-used
+ * when their total size exceeds the disk budget, skipping mirrors that a
+ * live session still borrows from.
+ */
+@Service
+public class GitMirrorCache {
+
+    private static final String MIRROR_SUFFIX = ".git";
+
+    private final boolean enabled;
+    private final Path mirrorDirectory;
+    private final long maxBytes;
+
+    private final Map<String, Object> mirrorLocks = new ConcurrentHashMap<>();
+    private final Map<String, Set<Path>> mirrorUsers = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public GitMirrorCache(
+            @Value("${git.mirror.enabled:true}") boolean enabled,
+            @Value("${git.mirror.dir:${java.io.tmpdir}/reposcribe-mirrors}") String mirrorDirectory,
+            @Value("${git.mirror.max-bytes:10737418240}") long maxBytes) {
+        this.enabled = enabled;
+        this.mirrorDirectory = Paths.get(mirrorDirectory);
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Bring the mirror of a repository up to date, creating it on first use, and
+     * record the session repository that will borrow its objects. Every call
+     * fetches with the caller's credentials, so a session only gets a mirror it
+     * could have cloned itself.
+     * @param branch Branch to mirror, or null for every branch
+     * @param sessionRepository Repository that borrows from the mirror through alternates
+     * @return Path of the bare mirror repository
+     */
+    public Path sync(String repositoryUrl, CredentialsProvider credentials, String branch, int timeoutSeconds,
+                     int depth, Path sessionRepository) throws GitAPIException, IOException {
+
+        String key = mirrorKey(repositoryUrl);
+        Path mirrorPath = mirrorDirectory.resolve(key + MIRROR_SUFFIX);
+
+        // Credentials embedded in the URL go through the provider and are never stored in the shared mirror
+        if (credentials == null) {
+            credentials = urlCredentials(repositoryUrl);
+        }
+        String remoteUrl = stripCredentials(repositoryUrl);
+        RefSpec refSpec = branch != null
+            ? new RefSpec("+" + Constants.R_HEADS + branch + ":" + Constants.R_HEADS + branch)
+            : new RefSpec("+refs/heads/*:refs/heads/*");
+
+        synchronized (mirrorLocks.computeIfAbsent(key, k -> new Object())) {
+            boolean created = !Files.isDirectory(mirrorPath);
+            if (created) {
+                misses.incrementAndGet();
+                Files.createDirectories(mirrorDirectory);
+                Git.init().setDirectory(mirrorPath.toFile()).setBare(true).call().close();
+            } else {
+                hits.incrementAndGet();
+            }
+
+            try (Git mirror = Git.open(mirrorPath.toFile())) {
+                StoredConfig config = mirror.getRepository().getConfig();
+                config.setString("remote", Constants.DEFAULT_REMOTE_NAME, "url", remoteUrl);
+                config.save();
+
+                FetchCommand fetch = mirror.fetch()
+                    .setRemote(remoteUrl)
+                    .setRefSpecs(refSpec)
+                    // Pruning with a single-branch refspec would only ever see that branch
+                    .setRemoveDeletedRefs(branch == null)
+                    .setTimeout(timeoutSeconds);
+                if (credentials != null) {
+                    fetch.setCredentialsProvider(credentials);
+                }
+                if (depth > 0) {
+                    fetch.setDepth(depth);
+                }
+                FetchResult result = fetch.call();
+
+                // Follow the remote default branch so borrowers without a branch check out the right one
+                Ref head = result.getAdvertisedRef(Constants.HEAD);
+                if (head != null && head.isSymbolic()) {
+                    mirror.getRepository().updateRef(Constants.HEAD).link(head.getTarget().getName());
+                }
+            } catch (GitAPIException | IOException | RuntimeException e) {
+                if (created) {
+                    deleteMirror(mirrorPath);
+                }
+                throw e;
+            }
+
+            Files.setLastModifiedTime(mirrorPath, FileTime.fromMillis(System.currentTimeMillis()));
+            // Register while holding the lock so eviction cannot delete the mirror before the session sees it
+            mirrorUsers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(sessionRepository);
+        }
+
+        evictIfOverBudget(key);
+        return mirrorPath;
+    }
+
+    /**
+     * Remove the user name and password from an HTTP(S) repository URL.
+     * SSH URLs are returned unchanged: their user is a login name, not a secret.
+     */
+    public static String stripCredentials(String repositoryUrl) {
+        String url = repositoryUrl.trim();
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd < 0 || !url.regionMatches(true, 0, "http", 0, 4)) {
+            return url;
+        }
+        int hostStart = schemeEnd + "://".length();
+        int slash = url.indexOf('/', hostStart);
+        int at = url.lastIndexOf('@', slash < 0 ? url.length() : slash);
+        return at < hostStart ? url : url.substring(0, hostStart) + url.substring(at + 1);
+    }
+
+    /**
+     * Credentials embedded in an HTTP(S) repository URL, or null if it has none
+     */
+    public static CredentialsProvider urlCredentials(String repositoryUrl) {
+        if (stripCredentials(repositoryUrl).equals(repositoryUrl.trim())) {
+            return null;
+        }
+        try {
+            URIish uri = new URIish(repositoryUrl.trim());
+            // Tokens are often given as the user name alone
+            return new UsernamePasswordCredentialsProvider(uri.getUser(), uri.getPass() != null ? uri.getPass() : "");
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Normalize a repository URL so equivalent spellings share one mirror:
+     * scheme, credentials, letter case of the host, trailing slashes and ".git" are ignored
+     */
+    public static String normalizeUrl(String repositoryUrl) {
+        String url = repositoryUrl.trim();
+        if (url.startsWith("git@")) {
+            // git@host:owner/repo -> host/owner/repo
+            url = url.substring("git@".length()).replaceFirst(":", "/");
+        } else {
+            url = url.replaceFirst("^[a-zA-Z][a-zA-Z0-9+.-]*://", "");
+            int at = url.indexOf('@');
+            int slash = url.indexOf('/');
+            if (at >= 0 && (slash < 0 || at < slash)) {
+                url = url.substring(at + 1);
+            }
+        }
+
+        while (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        if (url.endsWith(MIRROR_SUFFIX)) {
+            url = url.substring(0, url.length() - MIRROR_SUFFIX.length());
+        }
+
+        int slash = url.indexOf('/');
+        String host = slash < 0 ? url : url.substring(0, slash);
+        String path = slash < 0 ? "" : url.substring(slash);
+        return host.toLowerCase(Locale.ROOT) + path;
+    }
+
+    private static String mirrorKey(String repositoryUrl) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(normalizeUrl(repositoryUrl).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String keyOf(Path mirrorPath) {
+        String name = mirrorPath.getFileName().toString();
+        return name.endsWith(MIRROR_SUFFIX) ? name.substring(0, name.length() - MIRROR_SUFFIX.length()) : name;
+    }
+
+    /**
+     * Evict least-recently-synced mirrors until the cache fits its budget.
+     * The mirror just synced and mirrors still borrowed by live sessions are kept.
+     */
+    private void evictIfOverBudget(String currentKey) throws IOException {
+        List<Path> mirrors = new ArrayList<>();
+        try (Stream<Path> entries = Files.list(mirrorDirectory)) {
+            entries.filter(path -> path.getFileName().toString().endsWith(MIRROR_SUFFIX)).forEach(mirrors::add);
+        }
+
+        Map<Path, Long> sizes = new HashMap<>();
+        long totalBytes = 0;
+        for (Path mirror : mirrors) {
+            long size = directorySize(mirror);
+            sizes.put(mirror, size);
+            totalBytes += size;
+        }
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+
+        mirrors.sort(Comparator.comparing(GitMirrorCache::lastModified));
+        for (Path mirror : mirrors) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            String key = keyOf(mirror);
+            if (key.equals(currentKey) || isInUse(key)) {
+                continue;
+            }
+            synchronized (mirrorLocks.computeIfAbsent(key, k -> new Object())) {
+                // A sync may have registered a session since the check above
+                if (isInUse(key)) {
+                    continue;
+                }
+                deleteMirror(mirror);
+                mirrorUsers.remove(key);
+            }
+            totalBytes -= sizes.get(mirror);
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean isInUse(String key) {
+        Set<Path> users = mirrorUsers.get(key);
+        if (users == null) {
+            return false;
+        }
+        // Sessions are deleted without telling us, so drop users whose checkout is gone
+        users.removeIf(user -> !Files.exists(user));
+        return !users.isEmpty();
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long directorySize(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void deleteMirror(Path mirrorPath) {
+        if (!Files.exists(mirrorPath)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(mirrorPath)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    // Ignore cleanup errors
+                }
+            });
+        } catch (IOException e) {
+            // Ignore cleanup errors
+        }
+    }
+
+    /**
+     * Mirror hit/miss and eviction counters
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+}
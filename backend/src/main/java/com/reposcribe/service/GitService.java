@@ -1,21 +1,84 @@
 package com.reposcribe.service;
 
+import com.reposcribe.model.RepositoryChanges;
+import com.reposcribe.parser.ParserRegistry;
+import com.reposcribe.parser.SourceFileScanner;
+import org.eclipse.jgit.api.CheckoutCommand;
+import org.eclipse.jgit.api.CloneCommand;
+import org.eclipse.jgit.api.CreateBranchCommand;
+import org.eclipse.jgit.api.FetchCommand;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.LsRemoteCommand;
+import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.CredentialsProvider;
+import org.eclipse.jgit.transport.URIish;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 public class GitService {
 
+    // Repository config marker for clones that only materialize source files
+    private static final String CONFIG_SECTION = "reposcribe";
+    private static final String CONFIG_SOURCE_ONLY = "sourceOnly";
+    // Upstream URL of clones whose origin is a local mirror
+    private static final String CONFIG_UPSTREAM_URL = "upstreamUrl";
+
+    private final ParserRegistry parserRegistry;
+    private final GitMirrorCache mirrorCache;
+    private final DirectoryCleaner directoryCleaner;
+    private final int timeoutSeconds;
+    private final int depth;
+    private final boolean singleBranch;
+    private final boolean sourceOnly;
+    private final boolean bare;
+
+    public GitService(
+            ParserRegistry parserRegistry,
+            GitMirrorCache mirrorCache,
+            DirectoryCleaner directoryCleaner,
+            @Value("${git.clone.timeout:60}") int timeoutSeconds,
+            @Value("${git.clone.depth:0}") int depth,
+            @Value("${git.clone.single-branch:true}") boolean singleBranch,
+            @Value("${git.clone.source-only:false}") boolean sourceOnly,
+            @Value("${git.clone.bare:false}") boolean bare) {
+        this.parserRegistry = parserRegistry;
+        this.mirrorCache = mirrorCache;
+        this.directoryCleaner = directoryCleaner;
+        this.timeoutSeconds = timeoutSeconds;
+        this.depth = depth;
+        this.singleBranch = singleBranch;
+        this.sourceOnly = sourceOnly;
+        this.bare = bare;
+    }
+
     /**
-     * Clone a Git repository
+     * Clone a Git repository at its default branch
      * @param repositoryUrl Git repository URL (HTTPS or SSH)
      * @param username Optional username for private repos
      * @param password Optional password/token for private repos
@@ -23,6 +86,19 @@ public class GitService {
      */
     public Path cloneRepository(String repositoryUrl, String username, String password) 
             throws GitAPIException, Exception {
+        return cloneRepository(repositoryUrl, username, password, null);
+    }
+
+    /**
+     * Clone a Git repository
+     * @param repositoryUrl Git repository URL (HTTPS or SSH)
+     * @param username Optional username for private repos
+     * @param password Optional password/token for private repos
+     * @param branch Optional branch to clone; the remote default branch when empty
+     * @return Path to cloned repository
+     */
+    public Path cloneRepository(String repositoryUrl, String username, String password, String branch)
+            throws GitAPIException, Exception {
         
         // Validate URL
         if (repositoryUrl == null || repositoryUrl.trim().isEmpty()) {
@@ -42,31 +118,50 @@ public class GitService {
         Files.createDirectories(clonePath);
 
         try {
-            // Clone the repository
-            Git git;
-            
-            if (username != null && password != null && !username.isEmpty() && !password.isEmpty()) {
-                // Clone with credentials (for private repos)
-                UsernamePasswordCredentialsProvider credentials = 
-                    new UsernamePasswordCredentialsProvider(username, password);
-                
-                git = Git.cloneRepository()
-                    .setURI(repositoryUrl)
-                    .setDirectory(clonePath.toFile())
-                    .setCredentialsProvider(credentials)
-                    .setTimeout(60)
-                    .call();
-            } else {
-                // Clone without credentials (public repos)
-                git = Git.cloneRepository()
-                    .setURI(repositoryUrl)
-                    .setDirectory(clonePath.toFile())
-                    .setTimeout(60)
-                    .call();
+            CredentialsProvider credentials = credentials(username, password);
+            if (credentials == null) {
+                credentials = GitMirrorCache.urlCredentials(repositoryUrl);
+            }
+
+            if (mirrorCache.isEnabled()) {
+                cloneFromMirror(repositoryUrl, credentials, branch, clonePath);
+                return clonePath;
+            }
+
+            // Only fetch the branch we document, unless asked for everything
+            String cloneBranch = branch != null && !branch.isBlank() ? branch.trim() : null;
+            if (cloneBranch == null && (singleBranch || sourceOnly)) {
+                cloneBranch = resolveDefaultBranch(repositoryUrl, credentials);
+            }
+
+            CloneCommand clone = Git.cloneRepository()
+                .setURI(repositoryUrl)
+                .setDirectory(clonePath.toFile())
+                .setTimeout(timeoutSeconds)
+                .setBare(bare)
+                .setNoCheckout(sourceOnly);
+            if (credentials != null) {
+                clone.setCredentialsProvider(credentials);
+            }
+            if (depth > 0) {
+                clone.setDepth(depth);
+            }
+            if (cloneBranch != null) {
+                clone.setBranch(cloneBranch);
+                if (singleBranch) {
+                    clone.setCloneAllBranches(false);
+                    clone.setBranchesToClone(List.of(Constants.R_HEADS + cloneBranch));
+                }
             }
 
             // Close the Git instance (doesn't delete the files)
-            git.close();
+            try (Git git = clone.call()) {
+                if (sourceOnly && !bare) {
+                    String checkoutBranch = cloneBranch != null ? cloneBranch : guessFetchedBranch(git.getRepository());
+                    attachBranch(git, checkoutBranch);
+                    checkoutSourcesOnly(git);
+                }
+            }
 
             return clonePath;
             
@@ -81,7 +176,7 @@ public class GitService {
             cleanup(clonePath);
             throw new Exception("Git operation failed: " + e.getMessage(), e);
             
-        } catch (GitAPIException e) {
+        } catch (GitAPIException | IOException e) {
             // Clean up on failure
             cleanup(clonePath);
             throw new Exception("Failed to clone repository: " + e.getMessage(), e);
@@ -89,37 +184,405 @@ public class GitService {
     }
 
     /**
-     * Clean up cloned repository
+     * Create a session checkout that borrows its objects from the shared
+     * mirror through git alternates, so nothing is downloaded or copied for
+     * repositories that are already mirrored. With git.clone.single-branch
+     * only the documented branch is mirrored and fetched.
      */
-    public void cleanup(Path path) {
+    private void cloneFromMirror(String repositoryUrl, CredentialsProvider credentials, String branch, Path clonePath)
+            throws GitAPIException, IOException {
+
+        String checkoutBranch = branch != null && !branch.isBlank() ? branch.trim() : null;
+        if (checkoutBranch == null) {
+            checkoutBranch = resolveDefaultBranch(repositoryUrl, credentials);
+        }
+        String mirrorBranch = singleBranch ? checkoutBranch : null;
+
+        Path mirrorPath = mirrorCache.sync(repositoryUrl, credentials, mirrorBranch, timeoutSeconds, depth, clonePath);
+
+        try (Git git = Git.init().setDirectory(clonePath.toFile()).setBare(bare).call()) {
+            Path gitDirectory = git.getRepository().getDirectory().toPath();
+            Path alternates = gitDirectory.resolve("objects").resolve("info").resolve("alternates");
+            Files.createDirectories(alternates.getParent());
+            Files.writeString(alternates, mirrorPath.resolve("objects").toAbsolutePath() + "\n");
+            copyShallowFile(mirrorPath, gitDirectory);
+
+            git.remoteAdd()
+                .setName(Constants.DEFAULT_REMOTE_NAME)
+                .setUri(new URIish(mirrorPath.toAbsolutePath().toUri().toURL()))
+                .call();
+            StoredConfig config = git.getRepository().getConfig();
+            if (mirrorBranch != null) {
+                // Track only the mirrored branch, like a single-branch clone
+                config.setString("remote", Constants.DEFAULT_REMOTE_NAME, "fetch", "+" + Constants.R_HEADS + mirrorBranch
+                    + ":" + Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + mirrorBranch);
+            }
+            config.setString(CONFIG_SECTION, null, CONFIG_UPSTREAM_URL, repositoryUrl);
+            config.save();
+        }
+
+        // Reopen so the object database picks up the alternates file
+        try (Git git = Git.open(clonePath.toFile())) {
+            // Only refs are transferred: every object is already reachable through the mirror
+            git.fetch().setRemote(Constants.DEFAULT_REMOTE_NAME).call();
+
+            if (checkoutBranch == null) {
+                checkoutBranch = mirrorDefaultBranch(mirrorPath);
+            }
+            if (checkoutBranch == null) {
+                checkoutBranch = guessFetchedBranch(git.getRepository());
+            }
+            attachBranch(git, checkoutBranch);
+
+            if (bare) {
+                // Sources are read from the object database, nothing to check out
+            } else if (sourceOnly) {
+                checkoutSourcesOnly(git);
+            } else {
+                git.reset()
+                    .setMode(ResetCommand.ResetType.HARD)
+                    .setRef(Constants.HEAD)
+                    .call();
+            }
+        }
+    }
+
+    private String mirrorDefaultBranch(Path mirrorPath) throws IOException {
+        try (Git mirror = Git.open(mirrorPath.toFile())) {
+            Ref head = mirror.getRepository().exactRef(Constants.HEAD);
+            if (head != null && head.isSymbolic() && head.getObjectId() != null) {
+                return Repository.shortenRefName(head.getTarget().getName());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Shallow mirrors record their history boundary in a "shallow" file; borrowers need the same boundary
+     */
+    private void copyShallowFile(Path mirrorPath, Path gitDirectory) throws IOException {
+        Path shallow = mirrorPath.resolve("shallow");
+        if (Files.exists(shallow)) {
+            Files.copy(shallow, gitDirectory.resolve("shallow"), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Find the branch the remote HEAD points to, or null if the remote does not say
+     */
+    private String resolveDefaultBranch(String repositoryUrl, CredentialsProvider credentials) {
+        Map<String, Ref> refs;
         try {
-            if (path != null && Files.exists(path)) {
-                deleteDirectory(path.toFile());
+            LsRemoteCommand lsRemote = Git.lsRemoteRepository()
+                .setRemote(repositoryUrl)
+                .setTimeout(timeoutSeconds);
+            if (credentials != null) {
+                lsRemote.setCredentialsProvider(credentials);
             }
+            refs = lsRemote.callAsMap();
         } catch (Exception e) {
-            // Ignore cleanup errors
+            // Fall back to cloning every branch; the clone itself reports real connection errors
+            return null;
+        }
+
+        Ref head = refs.get(Constants.HEAD);
+        if (head == null) {
+            return null;
+        }
+        if (head.isSymbolic()) {
+            return Repository.shortenRefName(head.getTarget().getName());
         }
+
+        // Servers that do not advertise the symref: pick the branch at the same commit
+        for (Ref ref : refs.values()) {
+            if (ref.getName().startsWith(Constants.R_HEADS) && ref.getObjectId().equals(head.getObjectId())) {
+                return Repository.shortenRefName(ref.getName());
+            }
+        }
+        return null;
     }
 
     /**
-     * Recursively delete directory
+     * Create the local tracking branch for a fetched remote branch and point HEAD at it
      */
-    private void deleteDirectory(File directory) {
-        if (directory.exists()) {
-            File[] files = directory.listFiles();
-            if (files != null) {
-                for (File file : files) {
-                    if (file.isDirectory()) {
-                        deleteDirectory(file);
-                    } else {
-                        file.delete();
+    private void attachBranch(Git git, String branch) throws GitAPIException, IOException {
+        if (branch == null) {
+            throw new IOException("Could not determine the branch to check out");
+        }
+
+        Repository repository = git.getRepository();
+        if (repository.exactRef(Constants.R_HEADS + branch) == null) {
+            git.branchCreate()
+                .setName(branch)
+                .setStartPoint(Constants.DEFAULT_REMOTE_NAME + "/" + branch)
+                .setUpstreamMode(CreateBranchCommand.SetupUpstreamMode.TRACK)
+                .call();
+        }
+        RefUpdate headUpdate = repository.updateRef(Constants.HEAD);
+        headUpdate.link(Constants.R_HEADS + branch);
+    }
+
+    /**
+     * Finish a no-checkout clone by writing only the files a registered parser can read
+     */
+    private void checkoutSourcesOnly(Git git) throws GitAPIException, IOException {
+        Repository repository = git.getRepository();
+        StoredConfig config = repository.getConfig();
+        config.setBoolean(CONFIG_SECTION, null, CONFIG_SOURCE_ONLY, true);
+        config.save();
+
+        ObjectId head = repository.resolve(Constants.HEAD);
+        try (RevWalk revWalk = new RevWalk(repository);
+             TreeWalk treeWalk = new TreeWalk(repository)) {
+            RevCommit commit = revWalk.parseCommit(head);
+            treeWalk.addTree(commit.getTree());
+            treeWalk.setRecursive(true);
+
+            List<String> sourcePaths = new ArrayList<>();
+            while (treeWalk.next()) {
+                if (isSourcePath(treeWalk.getPathString())) {
+                    sourcePaths.add(treeWalk.getPathString());
+                }
+            }
+            checkoutPaths(git, commit, sourcePaths);
+        }
+    }
+
+    /**
+     * Check whether a path holds a bare repository created with git.clone.bare
+     */
+    public boolean isBareRepository(Path repositoryPath) {
+        return repositoryPath != null
+            && Files.isRegularFile(repositoryPath.resolve(Constants.HEAD))
+            && Files.isDirectory(repositoryPath.resolve(Constants.OBJECTS))
+            && !Files.exists(repositoryPath.resolve(Constants.DOT_GIT));
+    }
+
+    /**
+     * List the source files at the head of a repository without checking them out.
+     * The caller must close the returned tree.
+     */
+    public GitSourceTree openSourceTree(Path repositoryPath) throws IOException {
+        Git git = Git.open(repositoryPath.toFile());
+        Repository repository = git.getRepository();
+        try (RevWalk revWalk = new RevWalk(repository);
+             TreeWalk treeWalk = new TreeWalk(repository)) {
+            ObjectId head = repository.resolve(Constants.HEAD);
+            if (head == null) {
+                throw new IOException("Repository has no commits");
+            }
+            RevCommit commit = revWalk.parseCommit(head);
+            treeWalk.addTree(commit.getTree());
+            treeWalk.setRecursive(true);
+
+            Map<String, ObjectId> blobs = new LinkedHashMap<>();
+            while (treeWalk.next()) {
+                if (isSourcePath(treeWalk.getPathString())) {
+                    blobs.put(treeWalk.getPathString(), treeWalk.getObjectId(0));
+                }
+            }
+            return new GitSourceTree(repository, commit.name(), blobs);
+        } catch (IOException | RuntimeException e) {
+            repository.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Pick a fetched remote branch when the remote default branch is unknown
+     */
+    private String guessFetchedBranch(Repository repository) throws IOException {
+        String remotePrefix = Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/";
+        List<Ref> remoteBranches = repository.getRefDatabase().getRefsByPrefix(remotePrefix);
+        for (String preferred : List.of("main", "master")) {
+            for (Ref ref : remoteBranches) {
+                if (ref.getName().equals(remotePrefix + preferred)) {
+                    return preferred;
+                }
+            }
+        }
+        return remoteBranches.isEmpty() ? null : remoteBranches.get(0).getName().substring(remotePrefix.length());
+    }
+
+    /**
+     * Write the given paths from a commit into the working tree
+     */
+    private void checkoutPaths(Git git, RevCommit commit, List<String> paths) throws GitAPIException {
+        if (paths.isEmpty()) {
+            return;
+        }
+        CheckoutCommand checkout = git.checkout().setStartPoint(commit);
+        checkout.addPaths(paths);
+        checkout.call();
+    }
+
+    /**
+     * Check whether a repository path is a file some parser will read
+     */
+    private boolean isSourcePath(String path) {
+        Path relativePath = Paths.get(path);
+        return parserRegistry.getParserForFile(relativePath) != null
+            && !SourceFileScanner.isInIgnoredDirectory(relativePath);
+    }
+
+    private CredentialsProvider credentials(String username, String password) {
+        if (username != null && password != null && !username.isEmpty() && !password.isEmpty()) {
+            // Credentials for private repos
+            return new UsernamePasswordCredentialsProvider(username, password);
+        }
+        return null;
+    }
+
+    /**
+     * Fetch new commits into an existing clone and move it to the fetched head
+     * @param repositoryPath Path of a repository created by cloneRepository
+     * @param username Optional username for private repos
+     * @param password Optional password/token for private repos
+     * @return Paths that changed between the old and new head
+     */
+    public RepositoryChanges updateRepository(Path repositoryPath, String username, String password)
+            throws Exception {
+
+        if (repositoryPath == null
+                || !(Files.isDirectory(repositoryPath.resolve(Constants.DOT_GIT)) || isBareRepository(repositoryPath))) {
+            throw new IllegalArgumentException("Session is not a Git repository");
+        }
+
+        try (Git git = Git.open(repositoryPath.toFile())) {
+            Repository repository = git.getRepository();
+            ObjectId oldHead = repository.resolve(Constants.HEAD);
+            String branch = repository.getBranch();
+
+            CredentialsProvider credentials = credentials(username, password);
+            String upstreamUrl = repository.getConfig().getString(CONFIG_SECTION, null, CONFIG_UPSTREAM_URL);
+
+            if (upstreamUrl != null) {
+                // Refresh the shared mirror, then pick up its refs locally
+                Path mirrorPath = mirrorCache.sync(upstreamUrl, credentials, singleBranch ? branch : null,
+                    timeoutSeconds, depth, repositoryPath);
+                copyShallowFile(mirrorPath, repository.getDirectory().toPath());
+                git.fetch().setRemote(Constants.DEFAULT_REMOTE_NAME).call();
+            } else {
+                FetchCommand fetch = git.fetch()
+                    .setRemote(Constants.DEFAULT_REMOTE_NAME)
+                    .setTimeout(timeoutSeconds);
+                if (credentials != null) {
+                    fetch.setCredentialsProvider(credentials);
+                }
+                if (depth > 0) {
+                    fetch.setDepth(depth);
+                }
+                fetch.call();
+            }
+
+            ObjectId newHead = repository.resolve(Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + branch);
+            if (newHead == null && repository.isBare()) {
+                // Bare clones fetch straight into their local branches
+                newHead = repository.resolve(Constants.HEAD);
+            }
+            if (newHead == null) {
+                newHead = repository.resolve(Constants.FETCH_HEAD);
+            }
+            if (newHead == null) {
+                throw new Exception("Fetched repository has no head for branch " + branch);
+            }
+
+            RepositoryChanges changes = new RepositoryChanges(oldHead != null ? oldHead.name() : null, newHead.name());
+            if (newHead.equals(oldHead)) {
+                return changes;
+            }
+
+            collectChanges(repository, oldHead, newHead, changes);
+
+            if (repository.isBare()) {
+                // No working tree to update, just move the branch
+                RefUpdate headUpdate = repository.updateRef(Constants.HEAD);
+                headUpdate.setNewObjectId(newHead);
+                headUpdate.forceUpdate();
+            } else if (repository.getConfig().getBoolean(CONFIG_SECTION, CONFIG_SOURCE_ONLY, false)) {
+                // Apply the diff to the sparse working tree, then move the branch without a full checkout
+                applySourceChanges(git, newHead, changes);
+                git.reset()
+                    .setMode(ResetCommand.ResetType.SOFT)
+                    .setRef(newHead.name())
+                    .call();
+            } else {
+                git.reset()
+                    .setMode(ResetCommand.ResetType.HARD)
+                    .setRef(newHead.name())
+                    .call();
+            }
+
+            return changes;
+
+        } catch (org.eclipse.jgit.api.errors.TransportException e) {
+            if (e.getMessage().contains("authentication")) {
+                throw new Exception("Authentication failed. Check your credentials.", e);
+            }
+            throw new Exception("Failed to connect to repository: " + e.getMessage(), e);
+
+        } catch (GitAPIException e) {
+            throw new Exception("Failed to update repository: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Update a source-only working tree: delete removed files and check out
+     * added or modified source files from the new head
+     */
+    private void applySourceChanges(Git git, ObjectId newHead, RepositoryChanges changes)
+            throws GitAPIException, IOException {
+
+        Path workTree = git.getRepository().getWorkTree().toPath();
+        for (String deletedPath : changes.getDeletedPaths()) {
+            Files.deleteIfExists(workTree.resolve(deletedPath));
+        }
+
+        List<String> sourcePaths = new ArrayList<>();
+        changes.getAddedPaths().stream().filter(this::isSourcePath).forEach(sourcePaths::add);
+        changes.getModifiedPaths().stream().filter(this::isSourcePath).forEach(sourcePaths::add);
+
+        try (RevWalk revWalk = new RevWalk(git.getRepository())) {
+            checkoutPaths(git, revWalk.parseCommit(newHead), sourcePaths);
+        }
+    }
+
+    /**
+     * Diff two commits and record the changed paths
+     */
+    private void collectChanges(Repository repository, ObjectId oldHead, ObjectId newHead, RepositoryChanges changes)
+            throws IOException {
+
+        try (RevWalk revWalk = new RevWalk(repository);
+             DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+            diffFormatter.setRepository(repository);
+            diffFormatter.setDetectRenames(true);
+
+            ObjectId oldTree = oldHead != null ? revWalk.parseCommit(oldHead).getTree().getId() : null;
+            ObjectId newTree = revWalk.parseCommit(newHead).getTree().getId();
+            List<DiffEntry> entries = diffFormatter.scan(oldTree, newTree);
+
+            for (DiffEntry entry : entries) {
+                switch (entry.getChangeType()) {
+                    case ADD, COPY -> changes.getAddedPaths().add(entry.getNewPath());
+                    case MODIFY -> changes.getModifiedPaths().add(entry.getNewPath());
+                    case DELETE -> changes.getDeletedPaths().add(entry.getOldPath());
+                    case RENAME -> {
+                        changes.getDeletedPaths().add(entry.getOldPath());
+                        changes.getAddedPaths().add(entry.getNewPath());
                     }
                 }
             }
-            directory.delete();
         }
     }
 
+    /**
+     * Clean up cloned repository in the background
+     */
+    public void cleanup(Path path) {
+        directoryCleaner.deleteAsync(path);
+    }
+
     /**
      * Validate Git URL format
      */
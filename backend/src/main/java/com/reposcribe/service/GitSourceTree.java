@@ -0,0 +1,58 @@
+package com.reposcribe.service;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Source files of one commit, read straight from a repository's object database.
+ * Nothing is written to disk; a blob is loaded only when its content is requested.
+ */
+public class GitSourceTree implements AutoCloseable {
+
+    private final Repository repository;
+    private final String commitId;
+    private final Map<String, ObjectId> blobs;
+
+    GitSourceTree(Repository repository, String commitId, Map<String, ObjectId> blobs) {
+        this.repository = repository;
+        this.commitId = commitId;
+        this.blobs = blobs;
+    }
+
+    public String getCommitId() {
+        return commitId;
+    }
+
+    /**
+     * Repository paths of the source files, in tree order
+     */
+    public Set<String> getPaths() {
+        return blobs.keySet();
+    }
+
+    /**
+     * Read the content of a source file. Safe to call from several threads.
+     * @param relativePath path relative to the repository root
+     */
+    public byte[] read(Path relativePath) throws IOException {
+        String path = relativePath.toString().replace(File.separatorChar, '/');
+        ObjectId blobId = blobs.get(path);
+        if (blobId == null) {
+            throw new FileNotFoundException(path + " is not a source file in commit " + commitId);
+        }
+        return repository.open(blobId, Constants.OBJ_BLOB).getBytes();
+    }
+
+    @Override
+    public void close() {
+        repository.close();
+    }
+}
@@ -0,0 +1,165 @@
+package com.reposcribe.service;
+
+import com.reposcribe.model.RepositoryChanges;
+import com.reposcribe.model.Session;
+import com.reposcribe.parser.AnalysisPipeline;
+import com.reposcribe.parser.UnifiedParserService;
+import com.reposcribe.parser.model.DirectoryAnalysis;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Parses sessions and keeps their analysis up to date, so repeated
+ * documentation runs and git updates do not reparse unchanged sources.
+ */
+@Service
+public class SessionAnalysisService {
+
+    private final SessionService sessionService;
+    private final UnifiedParserService parserService;
+    private final GitService gitService;
+    private final UploadService uploadService;
+    private final boolean pipelineEnabled;
+
+    public SessionAnalysisService(
+            SessionService sessionService,
+            UnifiedParserService parserService,
+            GitService gitService,
+            UploadService uploadService,
+            @Value("${upload.pipeline.enabled:true}") boolean pipelineEnabled) {
+        this.sessionService = sessionService;
+        this.parserService = parserService;
+        this.gitService = gitService;
+        this.uploadService = uploadService;
+        this.pipelineEnabled = pipelineEnabled;
+    }
+
+    /**
+     * Store an uploaded ZIP as a new session. When uploads are extracted, source
+     * files are parsed while the archive is still inflating, so the session's
+     * analysis is ready as soon as extraction finishes.
+     */
+    public Session createUploadSession(MultipartFile file) throws IOException {
+        if (!pipelineEnabled || !uploadService.isExtractEnabled()) {
+            Path sessionPath = uploadService.processZipUpload(file);
+            Session.Source source = uploadService.isArchive(sessionPath)
+                ? Session.Source.ARCHIVE
+                : Session.Source.DIRECTORY;
+            return sessionService.getSession(sessionService.registerSession(sessionPath, source));
+        }
+
+        AnalysisPipeline pipeline = parserService.startPipeline();
+        Path sessionPath;
+        try {
+            sessionPath = uploadService.processZipUpload(file, pipeline::submit);
+        } catch (IOException | RuntimeException e) {
+            pipeline.cancel();
+            throw e;
+        }
+
+        DirectoryAnalysis analysis = pipeline.finish();
+        Session session = sessionService.getSession(sessionService.registerSession(sessionPath));
+        session.setAnalysis(analysis);
+        return session;
+    }
+
+    /**
+     * Get the analysis of a session, parsing it on first use
+     */
+    public DirectoryAnalysis analyzeSession(String sessionId) {
+        Session session = requireSession(sessionId);
+
+        synchronized (session) {
+            DirectoryAnalysis analysis = session.getAnalysis();
+            if (analysis == null) {
+                analysis = switch (session.getSource()) {
+                    case GIT_OBJECTS -> analyzeGitObjects(session);
+                    case ARCHIVE -> analyzeArchive(session);
+                    case DIRECTORY -> parserService.analyzeDirectory(session.getPath());
+                };
+                session.setAnalysis(analysis);
+            }
+            return analysis;
+        }
+    }
+
+    /**
+     * Parse the head commit of a bare session repository, streaming blobs into the parsers
+     */
+    private DirectoryAnalysis analyzeGitObjects(Session session) {
+        Path repositoryPath = session.getPath();
+        try (GitSourceTree sourceTree = gitService.openSourceTree(repositoryPath)) {
+            return parserService.analyzeSources(repositoryPath, sourceTree.getPaths(),
+                file -> sourceTree.read(repositoryPath.relativize(file)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read repository: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parse the source entries of an unextracted upload, reading them in place from the archive
+     */
+    private DirectoryAnalysis analyzeArchive(Session session) {
+        Path sessionPath = session.getPath();
+        try (ZipSourceTree sourceTree = uploadService.openArchive(sessionPath)) {
+            return parserService.analyzeSources(sessionPath, sourceTree.getPaths(),
+                file -> sourceTree.read(sessionPath.relativize(file)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read archive: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fetch new commits into a cloned session and reparse only the files that changed
+     */
+    public RepositoryChanges updateGitSession(String sessionId, String username, String password) throws Exception {
+        Session session = requireSession(sessionId);
+
+        synchronized (session) {
+            RepositoryChanges changes = gitService.updateRepository(session.getPath(), username, password);
+            if (!changes.isEmpty()) {
+                // Let the reaper measure the new size of the checkout
+                session.setDiskBytes(-1);
+            }
+
+            DirectoryAnalysis previous = session.getAnalysis();
+            if (previous != null && !changes.isEmpty() && session.getSource() == Session.Source.GIT_OBJECTS) {
+                Path repositoryPath = session.getPath();
+                try (GitSourceTree sourceTree = gitService.openSourceTree(repositoryPath)) {
+                    session.setAnalysis(parserService.reanalyzeSources(
+                        previous,
+                        repositoryPath,
+                        changes.getAddedPaths(),
+                        changes.getModifiedPaths(),
+                        changes.getDeletedPaths(),
+                        file -> sourceTree.read(repositoryPath.relativize(file))
+                    ));
+                }
+            } else if (previous != null && !changes.isEmpty()) {
+                session.setAnalysis(parserService.reanalyzeDirectory(
+                    previous,
+                    session.getPath(),
+                    changes.getAddedPaths(),
+                    changes.getModifiedPaths(),
+                    changes.getDeletedPaths()
+                ));
+            }
+            return changes;
+        }
+    }
+
+    private Session requireSession(String sessionId) {
+        Session session = sessionService.getSession(sessionId);
+        if (session == null) {
+            throw new IllegalArgumentException("Invalid session ID");
+        }
+        if (session.getPath() == null) {
+            throw new IllegalArgumentException("Session path not found");
+        }
+        return session;
+    }
+}
@@ -0,0 +1,173 @@
+package com.reposcribe.service;
+
+import com.reposcribe.generator.DocumentationJobService;
+import com.reposcribe.model.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Expires sessions in the background. Sessions are removed when they exceed
+ * their maximum age or have been idle too long, and least recently used
+ * sessions are evicted while their files exceed the disk budget. Sessions
+ * with a queued or running documentation job are kept until it finishes;
+ * the check and the removal happen under the job service's lock.
+ * Files are deleted asynchronously by the {@link DirectoryCleaner}.
+ */
+@Service
+public class SessionReaper {
+
+    private final SessionService sessionService;
+    private final DirectoryCleaner directoryCleaner;
+    private final DocumentationJobService jobService;
+    private final long maxAgeMillis;
+    private final long maxIdleMillis;
+    private final long diskBudgetBytes;
+
+    private final AtomicLong expiredSessions = new AtomicLong();
+    private final AtomicLong idleSessions = new AtomicLong();
+    private final AtomicLong evictedForDisk = new AtomicLong();
+    private final AtomicLong skippedActiveJobs = new AtomicLong();
+    private final AtomicLong reaperRuns = new AtomicLong();
+    private volatile long lastDiskBytes;
+
+    public SessionReaper(
+            SessionService sessionService,
+            DirectoryCleaner directoryCleaner,
+            DocumentationJobService jobService,
+            @Value("${session.ttl-minutes:240}") long ttlMinutes,
+            @Value("${session.idle-minutes:60}") long idleMinutes,
+            @Value("${session.disk-budget-bytes:10737418240}") long diskBudgetBytes) {
+        this.sessionService = sessionService;
+        this.directoryCleaner = directoryCleaner;
+        this.jobService = jobService;
+        this.maxAgeMillis = ttlMinutes * 60_000;
+        this.maxIdleMillis = idleMinutes * 60_000;
+        this.diskBudgetBytes = diskBudgetBytes;
+    }
+
+    /**
+     * Remove expired and idle sessions, then enforce the disk budget
+     */
+    @Scheduled(fixedDelayString = "${session.reaper.interval-ms:60000}",
+               initialDelayString = "${session.reaper.interval-ms:60000}")
+    public void reap() {
+        reaperRuns.incrementAndGet();
+        long now = System.currentTimeMillis();
+
+        List<Session> sessions = sessionService.getSessions();
+        for (Session session : sessions) {
+            if (maxAgeMillis > 0 && now - session.getCreatedAt() > maxAgeMillis) {
+                if (evict(session)) {
+                    expiredSessions.incrementAndGet();
+                }
+            } else if (maxIdleMillis > 0 && now - session.getLastAccessedAt() > maxIdleMillis) {
+                if (evict(session)) {
+                    idleSessions.incrementAndGet();
+                }
+            }
+        }
+
+        enforceDiskBudget();
+    }
+
+    /**
+     * Evict least recently used sessions until their files fit the disk budget
+     */
+    private void enforceDiskBudget() {
+        List<Session> sessions = sessionService.getSessions();
+        long totalBytes = 0;
+        for (Session session : sessions) {
+            totalBytes += diskBytes(session);
+        }
+        lastDiskBytes = totalBytes;
+        if (diskBudgetBytes <= 0 || totalBytes <= diskBudgetBytes) {
+            return;
+        }
+
+        sessions.sort(Comparator.comparingLong(Session::getLastAccessedAt));
+        for (Session session : sessions) {
+            if (totalBytes <= diskBudgetBytes) {
+                break;
+            }
+            if (evict(session)) {
+                totalBytes -= diskBytes(session);
+                evictedForDisk.incrementAndGet();
+            }
+        }
+        lastDiskBytes = totalBytes;
+    }
+
+    /**
+     * Remove a session unless its documentation job is still queued or running
+     * @return Whether the session was removed
+     */
+    private boolean evict(Session session) {
+        if (jobService.cleanupSessionWithoutJob(session.getId()) != null) {
+            return true;
+        }
+        if (jobService.hasActiveJob(session.getId())) {
+            skippedActiveJobs.incrementAndGet();
+        }
+        return false;
+    }
+
+    /**
+     * Size of a session's files, measured once and remembered on the session
+     */
+    private long diskBytes(Session session) {
+        long bytes = session.getDiskBytes();
+        if (bytes < 0) {
+            bytes = measure(session.getPath());
+            session.setDiskBytes(bytes);
+        }
+        return bytes;
+    }
+
+    private static long measure(Path path) {
+        if (path == null || !Files.exists(path)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Failed to measure session " + path + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Eviction counters, session disk usage and deletion metrics
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("activeSessions", sessionService.getSessions().size());
+        stats.put("expiredSessions", expiredSessions.get());
+        stats.put("idleSessions", idleSessions.get());
+        stats.put("evictedForDisk", evictedForDisk.get());
+        stats.put("skippedActiveJobs", skippedActiveJobs.get());
+        stats.put("sessionsEvicted", expiredSessions.get() + idleSessions.get() + evictedForDisk.get());
+        stats.put("diskBytes", lastDiskBytes);
+        stats.put("diskBudgetBytes", diskBudgetBytes);
+        stats.put("reaperRuns", reaperRuns.get());
+        stats.put("cleanup", directoryCleaner.getStatistics());
+        return stats;
+    }
+}
@@ -1,36 +1,67 @@
 package com.reposcribe.service;
 
+import com.reposcribe.model.Session;
+import com.reposcribe.parser.model.DirectoryAnalysis;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Service;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class SessionService {
 
-    // Store active sessions: sessionId -> extracted path
-    private final Map<String, Path> activeSessions = new ConcurrentHashMap<>();
-    private final UploadService uploadService;
+    // Store active sessions: sessionId -> session (extracted path and cached analysis)
+    private final Map<String, Session> activeSessions = new ConcurrentHashMap<>();
+    private final DirectoryCleaner directoryCleaner;
 
-    public SessionService(UploadService uploadService) {
-        this.uploadService = uploadService;
+    public SessionService(DirectoryCleaner directoryCleaner) {
+        this.directoryCleaner = directoryCleaner;
     }
 
     /**
      * Register a new session with extracted files
      */
     public String registerSession(Path extractedPath) {
-        String sessionId = extractedPath.getFileName().toString();
-        activeSessions.put(sessionId, extractedPath);
+        return registerSession(extractedPath, Session.Source.DIRECTORY);
+    }
+
+    /**
+     * Register a new session whose sources are read from the given kind of storage
+     */
+    public String registerSession(Path sessionPath, Session.Source source) {
+        String sessionId = sessionPath.getFileName().toString();
+        activeSessions.put(sessionId, new Session(sessionId, sessionPath, source));
         return sessionId;
     }
 
+    /**
+     * Get session by id
+     */
+    public Session getSession(String sessionId) {
+        Session session = activeSessions.get(sessionId);
+        if (session != null) {
+            session.touch();
+        }
+        return session;
+    }
+
     /**
      * Get path for a session
      */
     public Path getSessionPath(String sessionId) {
-        return activeSessions.get(sessionId);
+        Session session = getSession(sessionId);
+        return session != null ? session.getPath() : null;
+    }
+
+    /**
+     * Snapshot of all active sessions, without marking them as used
+     */
+    public List<Session> getSessions() {
+        return new ArrayList<>(activeSessions.values());
     }
 
     /**
@@ -41,21 +72,41 @@ public class SessionService {
     }
 
     /**
-     * Clean up session and delete files
+     * Get the cached analysis of a session, or null if it has not been parsed yet
+     */
+    public DirectoryAnalysis getAnalysis(String sessionId) {
+        Session session = getSession(sessionId);
+        return session != null ? session.getAnalysis() : null;
+    }
+
+    /**
+     * Cache the analysis of a session
      */
-    public void cleanupSession(String sessionId) {
-        Path path = activeSessions.remove(sessionId);
-        if (path != null) {
-            uploadService.cleanup(path);
+    public void setAnalysis(String sessionId, DirectoryAnalysis analysis) {
+        Session session = activeSessions.get(sessionId);
+        if (session != null) {
+            session.setAnalysis(analysis);
         }
     }
 
     /**
-     * Clean up all sessions (call on shutdown)
+     * Clean up session and delete its files in the background
+     * @return The removed session, or null if it did not exist
      */
+    public Session cleanupSession(String sessionId) {
+        Session session = activeSessions.remove(sessionId);
+        if (session != null) {
+            directoryCleaner.deleteAsync(session.getPath());
+        }
+        return session;
+    }
+
+    /**
+     * Clean up all sessions (called on shutdown)
+     */
+    @PreDestroy
     public void cleanupAll() {
-        activeSessions.values().forEach(uploadService::cleanup);
+        activeSessions.values().forEach(session -> directoryCleaner.deleteAsync(session.getPath()));
         activeSessions.clear();
     }
 }
-
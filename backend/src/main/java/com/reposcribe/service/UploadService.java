@@ -1,14 +1,31 @@
 package com.reposcribe.service;
 
+import com.reposcribe.parser.ParserRegistry;
+import com.reposcribe.parser.SourceFileScanner;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 @Service
@@ -16,6 +33,43 @@ public class UploadService {
 
     private static final String TEMP_DIR = System.getProperty("java.io.tmpdir");
     private static final long MAX_FILE_SIZE = 500 * 1024 * 1024; // 500MB
+    // Name of the stored upload inside the session directory when uploads are not extracted
+    private static final String ARCHIVE_NAME = ".reposcribe-upload.zip";
+
+    private final ParserRegistry parserRegistry;
+    private final DirectoryCleaner directoryCleaner;
+    private final boolean extract;
+    private final boolean sourceOnly;
+    private final boolean parallel;
+    private final ExecutorService extractPool;
+
+    public UploadService(
+            ParserRegistry parserRegistry,
+            DirectoryCleaner directoryCleaner,
+            @Value("${upload.extract:true}") boolean extract,
+            @Value("${upload.extract.source-only:true}") boolean sourceOnly,
+            @Value("${upload.extract.parallel:true}") boolean parallel,
+            @Value("${upload.extract.threads:0}") int threads) {
+        this.parserRegistry = parserRegistry;
+        this.directoryCleaner = directoryCleaner;
+        this.extract = extract;
+        this.sourceOnly = sourceOnly;
+        this.parallel = parallel;
+        this.extractPool = Executors.newFixedThreadPool(
+            threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        extractPool.shutdown();
+    }
+
+    /**
+     * Whether uploads are extracted to disk rather than kept as an archive
+     */
+    public boolean isExtractEnabled() {
+        return extract;
+    }
 
     /**
      * Process uploaded ZIP file
@@ -23,6 +77,17 @@ public class UploadService {
      * @return Path to extracted files (temporary)
      */
     public Path processZipUpload(MultipartFile file) throws IOException {
+        return processZipUpload(file, null);
+    }
+
+    /**
+     * Process uploaded ZIP file, publishing each source file as soon as it is written
+     * @param file MultipartFile containing ZIP
+     * @param onSourceExtracted Optional callback for every extracted file a parser reads;
+     *                          called from extraction worker threads
+     * @return Path to extracted files (temporary)
+     */
+    public Path processZipUpload(MultipartFile file, Consumer<Path> onSourceExtracted) throws IOException {
         // Validate file
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
@@ -41,49 +106,224 @@ public class UploadService {
         Path extractPath = Paths.get(TEMP_DIR, "reposcribe-upload-" + uniqueId);
         Files.createDirectories(extractPath);
 
+        if (!extract) {
+            storeArchive(file, extractPath);
+            return extractPath;
+        }
+
         // Extract ZIP file
+        if (parallel) {
+            extractInParallel(file, extractPath, onSourceExtracted);
+        } else {
+            extractStreaming(file, extractPath, onSourceExtracted);
+        }
+
+        return extractPath;
+    }
+
+    /**
+     * Inflate entries one at a time straight from the multipart stream
+     */
+    private void extractStreaming(MultipartFile file, Path extractPath, Consumer<Path> onSourceExtracted)
+            throws IOException {
         try (ZipInputStream zipInputStream = new ZipInputStream(file.getInputStream())) {
             ZipEntry entry;
             while ((entry = zipInputStream.getNextEntry()) != null) {
-                Path filePath = extractPath.resolve(entry.getName());
-                
-                // Security: Prevent zip slip vulnerability
-                if (!filePath.normalize().startsWith(extractPath.normalize())) {
-                    throw new IOException("Invalid entry in ZIP file");
-                }
+                Path filePath = resolveEntry(extractPath, entry);
 
                 if (entry.isDirectory()) {
-                    Files.createDirectories(filePath);
-                } else {
+                    // Directories are created on demand for the files kept below them
+                    if (!sourceOnly) {
+                        Files.createDirectories(filePath);
+                    }
+                } else if (shouldExtract(entry)) {
                     Files.createDirectories(filePath.getParent());
                     Files.copy(zipInputStream, filePath);
+                    publish(entry, filePath, onSourceExtracted);
                 }
                 zipInputStream.closeEntry();
             }
         }
-
-        return extractPath;
     }
 
     /**
-     * Clean up temporary files
+     * Spool the upload to disk once, then inflate its entries concurrently
+     * through the central directory of a ZipFile
      */
-    public void cleanup(Path path) {
+    private void extractInParallel(MultipartFile file, Path extractPath, Consumer<Path> onSourceExtracted)
+            throws IOException {
+        Path spoolPath = Paths.get(TEMP_DIR, extractPath.getFileName() + ".zip");
         try {
-            if (path != null && Files.exists(path)) {
-                Files.walk(path)
-                    .sorted((a, b) -> -a.compareTo(b))
-                    .forEach(p -> {
-                        try {
-                            Files.delete(p);
-                        } catch (IOException e) {
-                            // Ignore cleanup errors
+            file.transferTo(spoolPath);
+
+            try (ZipFile zipFile = new ZipFile(spoolPath.toFile())) {
+                // Validate every entry before writing anything
+                List<ZipEntry> entries = new ArrayList<>();
+                Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+                while (zipEntries.hasMoreElements()) {
+                    ZipEntry entry = zipEntries.nextElement();
+                    Path filePath = resolveEntry(extractPath, entry);
+                    if (entry.isDirectory()) {
+                        if (!sourceOnly) {
+                            Files.createDirectories(filePath);
                         }
-                    });
+                    } else if (shouldExtract(entry)) {
+                        entries.add(entry);
+                    }
+                }
+
+                List<Future<?>> extractions = new ArrayList<>(entries.size());
+                AtomicBoolean aborted = new AtomicBoolean();
+                try {
+                    for (ZipEntry entry : entries) {
+                        extractions.add(extractPool.submit(() -> {
+                            if (aborted.get()) {
+                                return null;
+                            }
+                            Path filePath = extractPath.resolve(entry.getName());
+                            Files.createDirectories(filePath.getParent());
+                            try (InputStream in = zipFile.getInputStream(entry)) {
+                                Files.copy(in, filePath);
+                            }
+                            publish(entry, filePath, onSourceExtracted);
+                            return null;
+                        }));
+                    }
+                    awaitAll(extractions);
+                } catch (IOException | RuntimeException e) {
+                    // Skip the entries not started yet and let running ones finish, so nothing
+                    // writes into the directory (or reads the ZipFile) after cleanup
+                    aborted.set(true);
+                    awaitQuietly(extractions);
+                    throw e;
+                }
+            }
+        } catch (ZipException e) {
+            cleanup(extractPath);
+            throw new IllegalArgumentException("File is not a valid ZIP archive");
+        } catch (IOException | RuntimeException e) {
+            cleanup(extractPath);
+            throw e;
+        } finally {
+            Files.deleteIfExists(spoolPath);
+        }
+    }
+
+    private void publish(ZipEntry entry, Path filePath, Consumer<Path> onSourceExtracted) {
+        if (onSourceExtracted != null && (sourceOnly || isSourceEntry(Paths.get(entry.getName()).normalize()))) {
+            onSourceExtracted.accept(filePath);
+        }
+    }
+
+    /**
+     * Wait for all extraction tasks, stopping at the first failure
+     */
+    private void awaitAll(List<Future<?>> extractions) throws IOException {
+        try {
+            for (Future<?> extraction : extractions) {
+                extraction.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Extraction was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to extract ZIP entry: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Wait until every extraction task has finished, whatever its outcome.
+     * An interrupt does not cut the wait short; it is restored afterwards.
+     */
+    private static void awaitQuietly(List<Future<?>> extractions) {
+        boolean interrupted = Thread.interrupted();
+        for (Future<?> extraction : extractions) {
+            while (true) {
+                try {
+                    extraction.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException e) {
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Resolve an entry below the extraction directory
+     */
+    static Path resolveEntry(Path extractPath, ZipEntry entry) throws IOException {
+        Path filePath = extractPath.resolve(entry.getName());
+
+        // Security: Prevent zip slip vulnerability
+        if (!filePath.normalize().startsWith(extractPath.normalize())) {
+            throw new IOException("Invalid entry in ZIP file");
+        }
+        return filePath;
+    }
+
+    /**
+     * In source-only mode binaries, vendored dependencies and build output are skipped
+     */
+    private boolean shouldExtract(ZipEntry entry) {
+        return !sourceOnly || isSourceEntry(Paths.get(entry.getName()).normalize());
+    }
+
+    /**
+     * Check whether an archive entry is a file some parser will read
+     */
+    private boolean isSourceEntry(Path relativePath) {
+        return parserRegistry.getParserForFile(relativePath) != null
+            && !SourceFileScanner.isInIgnoredDirectory(relativePath);
+    }
+
+    /**
+     * Keep the upload as a single archive in the session directory; its
+     * entries are read in place when the session is analyzed
+     */
+    private void storeArchive(MultipartFile file, Path sessionPath) throws IOException {
+        Path archivePath = sessionPath.resolve(ARCHIVE_NAME);
+        try {
+            file.transferTo(archivePath);
+            // Fail the upload now rather than at analysis time if the central directory is unreadable
+            new ZipFile(archivePath.toFile()).close();
+        } catch (ZipException e) {
+            cleanup(sessionPath);
+            throw new IllegalArgumentException("File is not a valid ZIP archive");
         } catch (IOException e) {
-            // Ignore cleanup errors
+            cleanup(sessionPath);
+            throw e;
         }
     }
+
+    /**
+     * Check whether a session directory holds an unextracted upload
+     */
+    public boolean isArchive(Path sessionPath) {
+        return sessionPath != null && Files.isRegularFile(sessionPath.resolve(ARCHIVE_NAME));
+    }
+
+    /**
+     * Open the stored upload of a session for in-place reading.
+     * The caller must close the returned tree.
+     */
+    public ZipSourceTree openArchive(Path sessionPath) throws IOException {
+        return new ZipSourceTree(sessionPath.resolve(ARCHIVE_NAME));
+    }
+
+    /**
+     * Clean up temporary files in the background
+     */
+    public void cleanup(Path path) {
+        directoryCleaner.deleteAsync(path);
+    }
 }
 
@@ -0,0 +1,74 @@
+package com.reposcribe.service;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Files of an uploaded ZIP archive, read in place through its central directory.
+ * Nothing is extracted; an entry is inflated only when its content is requested.
+ */
+public class ZipSourceTree implements AutoCloseable {
+
+    private final ZipFile zipFile;
+    private final Map<String, ZipEntry> entries;
+
+    ZipSourceTree(Path archivePath) throws IOException {
+        this.zipFile = new ZipFile(archivePath.toFile());
+        this.entries = new LinkedHashMap<>();
+
+        Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+        while (zipEntries.hasMoreElements()) {
+            ZipEntry entry = zipEntries.nextElement();
+            if (entry.isDirectory()) {
+                continue;
+            }
+            // Security: skip entries that would escape the archive root (zip slip)
+            Path relativePath = Paths.get(entry.getName()).normalize();
+            if (relativePath.isAbsolute() || relativePath.startsWith("..")) {
+                continue;
+            }
+            entries.put(toKey(relativePath), entry);
+        }
+    }
+
+    /**
+     * Paths of the files in the archive, in central directory order
+     */
+    public Set<String> getPaths() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Read the content of a file. Safe to call from several threads.
+     * @param relativePath path relative to the archive root
+     */
+    public byte[] read(Path relativePath) throws IOException {
+        ZipEntry entry = entries.get(toKey(relativePath));
+        if (entry == null) {
+            throw new FileNotFoundException(relativePath + " is not in the archive");
+        }
+        try (InputStream in = zipFile.getInputStream(entry)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String toKey(Path relativePath) {
+        return relativePath.toString().replace(File.separatorChar, '/');
+    }
+
+    @Override
+    public void close() throws IOException {
+        zipFile.close();
+    }
+}
@@ -0,0 +1,119 @@
+package com.reposcribe.ai;
+
+import com.reposcribe.ai.dto.ClassDescriptions;
+import com.reposcribe.ai.dto.ClassDocumentationBatch;
+import com.reposcribe.parser.model.ClassInfo;
+import com.reposcribe.parser.model.MethodInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ClassDocumentationServiceTest {
+
+    @Test
+    void parseIdReturnsZeroBasedIndex() {
+        assertEquals(0, ClassDocumentationService.parseId("C1", 'C'));
+        assertEquals(11, ClassDocumentationService.parseId("c12", 'C'));
+        assertEquals(2, ClassDocumentationService.parseId("M3", 'M'));
+        assertEquals(1, ClassDocumentationService.parseId("C 2", 'C'));
+    }
+
+    @Test
+    void parseIdRejectsMalformedIds() {
+        assertEquals(-1, ClassDocumentationService.parseId(null, 'C'));
+        assertEquals(-1, ClassDocumentationService.parseId("", 'C'));
+        assertEquals(-1, ClassDocumentationService.parseId("C", 'C'));
+        assertEquals(-1, ClassDocumentationService.parseId("M1", 'C'));
+        assertEquals(-1, ClassDocumentationService.parseId("Cx", 'C'));
+        assertEquals(-1, ClassDocumentationService.parseId("1", 'C'));
+    }
+
+    @Test
+    void applyMapsAnswersBackById() {
+        List<ClassInfo> batch = List.of(classWithMethods("First", "run", "stop"), classWithMethods("Second"));
+        ClassDocumentationBatch answer = answer(
+            item("C2", "  Second does things. ", null),
+            item("C1", "First runs.", Map.of("M2", "Stops it.", "M9", "Unknown method.")),
+            item("C9", "Unknown class.", null)
+        );
+
+        ClassDescriptions descriptions = new ClassDescriptions();
+        service(true).apply(batch, answer, descriptions);
+
+        assertEquals("First runs.", descriptions.getDescription(batch.get(0)));
+        assertEquals("Second does things.", descriptions.getDescription(batch.get(1)));
+        assertNull(descriptions.getDescription(batch.get(0).getMethods().get(0)));
+        assertEquals("Stops it.", descriptions.getDescription(batch.get(0).getMethods().get(1)));
+    }
+
+    @Test
+    void applyIgnoresBlankDescriptions() {
+        List<ClassInfo> batch = List.of(classWithMethods("First", "run"));
+        ClassDocumentationBatch answer = answer(item("C1", "   ", Map.of("M1", "")));
+
+        ClassDescriptions descriptions = new ClassDescriptions();
+        service(true).apply(batch, answer, descriptions);
+
+        assertNull(descriptions.getDescription(batch.get(0)));
+        assertNull(descriptions.getDescription(batch.get(0).getMethods().get(0)));
+    }
+
+    @Test
+    void applySkipsMethodsWhenTheyAreNotDocumented() {
+        List<ClassInfo> batch = List.of(classWithMethods("First", "run"));
+        ClassDocumentationBatch answer = answer(item("C1", "First runs.", Map.of("M1", "Runs it.")));
+
+        ClassDescriptions descriptions = new ClassDescriptions();
+        service(false).apply(batch, answer, descriptions);
+
+        assertEquals("First runs.", descriptions.getDescription(batch.get(0)));
+        assertNull(descriptions.getDescription(batch.get(0).getMethods().get(0)));
+    }
+
+    @Test
+    void applyLeavesTheParsedClassesUntouched() {
+        ClassInfo classInfo = classWithMethods("First", "run");
+        ClassDocumentationBatch answer = answer(item("C1", "First runs.", Map.of("M1", "Runs it.")));
+
+        service(true).apply(List.of(classInfo), answer, new ClassDescriptions());
+
+        assertNull(classInfo.getJavadoc());
+        assertNull(classInfo.getMethods().get(0).getJavadoc());
+    }
+
+    private static ClassDocumentationService service(boolean includeMethods) {
+        return new ClassDocumentationService(null, true, includeMethods, 2000, 20, 1);
+    }
+
+    private static ClassInfo classWithMethods(String name, String... methodNames) {
+        ClassInfo classInfo = new ClassInfo();
+        classInfo.setName(name);
+        for (String methodName : methodNames) {
+            MethodInfo method = new MethodInfo();
+            method.setName(methodName);
+            classInfo.getMethods().add(method);
+        }
+        return classInfo;
+    }
+
+    private static ClassDocumentationBatch answer(ClassDocumentationBatch.ClassDocumentation... items) {
+        ClassDocumentationBatch answer = new ClassDocumentationBatch();
+        answer.setClasses(new ArrayList<>(List.of(items)));
+        return answer;
+    }
+
+    private static ClassDocumentationBatch.ClassDocumentation item(
+            String id, String description, Map<String, String> methods) {
+        ClassDocumentationBatch.ClassDocumentation item = new ClassDocumentationBatch.ClassDocumentation();
+        item.setId(id);
+        item.setDescription(description);
+        item.setMethods(methods != null ? new LinkedHashMap<>(methods) : null);
+        return item;
+    }
+}
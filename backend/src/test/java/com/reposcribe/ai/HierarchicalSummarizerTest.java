@@ -0,0 +1,29 @@
+package com.reposcribe.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HierarchicalSummarizerTest {
+
+    @Test
+    void budgetIsKeptWithoutAContextWindow() {
+        assertEquals(3000, HierarchicalSummarizer.inventoryBudget(3000, 0, 4096));
+    }
+
+    @Test
+    void budgetIsKeptWhenTheWindowHasRoom() {
+        assertEquals(3000, HierarchicalSummarizer.inventoryBudget(3000, 32768, 4096));
+    }
+
+    @Test
+    void budgetLeavesRoomForPromptAndAnswer() {
+        assertEquals(8192 - 4096 - 1000, HierarchicalSummarizer.inventoryBudget(8000, 8192, 4096));
+        assertEquals(2048 - 500 - 1000, HierarchicalSummarizer.inventoryBudget(3000, 2048, 500));
+    }
+
+    @Test
+    void budgetKeepsAQuarterOfASmallWindow() {
+        assertEquals(1024, HierarchicalSummarizer.inventoryBudget(3000, 4096, 4096));
+    }
+}
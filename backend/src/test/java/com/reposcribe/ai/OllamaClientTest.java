@@ -0,0 +1,185 @@
+package com.reposcribe.ai;
+
+import com.reposcribe.ai.cache.ResponseCache;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OllamaClientTest {
+
+    private HttpServer server;
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile String body;
+    private volatile String requestBody;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/generate", exchange -> {
+            calls.incrementAndGet();
+            requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void streamAssemblesChunksAndHandsOverEachToken() throws Exception {
+        body = "{\"response\":\"Hel\",\"done\":false}\n"
+            + "\n"
+            + "{\"response\":\"lo\",\"done\":false}\n"
+            + "{\"response\":\"\",\"done\":true}\n";
+        OllamaClient client = client(new OllamaHealth(3, 30000), cache());
+
+        List<String> tokens = new ArrayList<>();
+        String text = client.generateStream("Say hello", tokens::add);
+
+        assertEquals("Hello", text);
+        assertEquals(List.of("Hel", "lo"), tokens);
+    }
+
+    @Test
+    void completeStreamIsCached() throws Exception {
+        body = "{\"response\":\"Hello\",\"done\":true}\n";
+        OllamaClient client = client(new OllamaHealth(3, 30000), cache());
+        client.generateStream("Say hello", token -> { });
+
+        List<String> tokens = new ArrayList<>();
+        String text = client.generateStream("Say hello", tokens::add);
+
+        assertEquals("Hello", text);
+        assertEquals(List.of("Hello"), tokens);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void truncatedStreamFailsAndIsNotCached() throws Exception {
+        body = "{\"response\":\"Hel\",\"done\":false}\n";
+        OllamaHealth health = new OllamaHealth(3, 30000);
+        OllamaClient client = client(health, cache());
+
+        assertThrows(IOException.class, () -> client.generateStream("Say hello", token -> { }));
+        assertEquals(1L, ((Number) health.getStatistics().get("failures")).longValue());
+
+        body = "{\"response\":\"Hello\",\"done\":true}\n";
+        assertEquals("Hello", client.generateStream("Say hello", token -> { }));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void errorChunkFails() {
+        body = "{\"response\":\"Hel\",\"done\":false}\n"
+            + "{\"error\":\"model crashed\"}\n";
+        OllamaClient client = client(new OllamaHealth(3, 30000), cache());
+
+        IOException e = assertThrows(IOException.class, () -> client.generateStream("Say hello", token -> { }));
+        assertTrue(e.getMessage().contains("model crashed"));
+    }
+
+    @Test
+    void answerLimitAndContextWindowAreSentAsOptions() throws Exception {
+        body = "{\"response\":\"Hello\",\"done\":true}\n";
+        OllamaClient client = client(8192, 512, new OllamaHealth(3, 30000), cache());
+
+        client.generateStream("Say hello", token -> { });
+
+        assertTrue(requestBody.contains("\"num_ctx\":8192"), requestBody);
+        assertTrue(requestBody.contains("\"num_predict\":512"), requestBody);
+    }
+
+    @Test
+    void answerLimitIsPartOfTheCacheKey() throws Exception {
+        body = "{\"response\":\"Hello\",\"done\":true}\n";
+        ResponseCache cache = cache();
+        client(0, 512, new OllamaHealth(3, 30000), cache).generateStream("Say hello", token -> { });
+
+        client(0, 1024, new OllamaHealth(3, 30000), cache).generateStream("Say hello", token -> { });
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void unsetLimitsSendNoOptions() {
+        OllamaClient client = client(0, 0, new OllamaHealth(3, 30000), cache());
+
+        assertNull(client.newRequest("llama3", "Say hello").getOptions());
+    }
+
+    @Test
+    void jsonAnswerIsCachedOnlyOnceItParses() throws Exception {
+        ResponseCache cache = cache();
+        OllamaClient client = client(new OllamaHealth(3, 30000), cache);
+        OllamaClient.ResponseParser<String> parser = response -> {
+            if (!response.startsWith("{")) {
+                throw new IOException("Not JSON: " + response);
+            }
+            return response;
+        };
+
+        body = "{\"response\":\"Sure! Here it is\",\"done\":true}";
+        assertThrows(IOException.class, () -> client.generateJson("Describe", parser));
+        assertTrue(requestBody.contains("\"format\":\"json\""), requestBody);
+        assertEquals(0, cache.getStatistics().get("entries"));
+
+        body = "{\"response\":\"{\\\"overview\\\":\\\"A tool\\\"}\",\"done\":true}";
+        assertEquals("{\"overview\":\"A tool\"}", client.generateJson("Describe", parser));
+        assertEquals("{\"overview\":\"A tool\"}", client.generateJson("Describe", parser));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void cachedJsonThatNoLongerParsesIsRequestedAgain() throws Exception {
+        ResponseCache cache = cache();
+        OllamaClient client = client(new OllamaHealth(3, 30000), cache);
+        body = "{\"response\":\"{}\",\"done\":true}";
+        client.generateJson("Describe", response -> response);
+
+        String answer = client.generateJson("Describe", response -> {
+            if (calls.get() < 2) {
+                throw new IOException("Rejected cached answer");
+            }
+            return response;
+        });
+
+        assertEquals("{}", answer);
+        assertEquals(2, calls.get());
+    }
+
+    private OllamaClient client(OllamaHealth health, ResponseCache cache) {
+        return client(0, 4096, health, cache);
+    }
+
+    private OllamaClient client(int contextTokens, int maxTokens, OllamaHealth health, ResponseCache cache) {
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new OllamaClient(baseUrl, "llama3", 5000, contextTokens, maxTokens, health,
+            new OllamaLimiter(2, 8, 0, 5000), cache);
+    }
+
+    private static ResponseCache cache() {
+        return new ResponseCache(true, 1 << 20, 60, false, System.getProperty("java.io.tmpdir"), 0);
+    }
+}
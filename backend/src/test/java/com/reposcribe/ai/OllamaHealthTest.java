@@ -0,0 +1,75 @@
+package com.reposcribe.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OllamaHealthTest {
+
+    @Test
+    void circuitOpensAfterConsecutiveFailures() {
+        OllamaHealth health = new OllamaHealth(3, 60_000);
+        health.recordFailure();
+        health.recordFailure();
+        assertEquals(OllamaHealth.State.CLOSED, health.getState());
+        assertTrue(health.allowRequest());
+
+        health.recordFailure();
+
+        assertEquals(OllamaHealth.State.OPEN, health.getState());
+        assertFalse(health.isAvailable());
+        assertTrue(health.isRejecting());
+        assertFalse(health.allowRequest());
+        assertEquals(1L, health.getStatistics().get("timesOpened"));
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        OllamaHealth health = new OllamaHealth(2, 60_000);
+        health.recordFailure();
+        health.recordSuccess();
+        health.recordFailure();
+
+        assertEquals(OllamaHealth.State.CLOSED, health.getState());
+        assertEquals(1, health.getStatistics().get("consecutiveFailures"));
+    }
+
+    @Test
+    void halfOpenLetsOneTrialThrough() {
+        OllamaHealth health = new OllamaHealth(1, 0);
+        health.recordFailure();
+
+        assertTrue(health.allowRequest());
+        assertEquals(OllamaHealth.State.HALF_OPEN, health.getState());
+        assertTrue(health.isRejecting());
+        assertFalse(health.allowRequest());
+    }
+
+    @Test
+    void successfulTrialClosesTheCircuit() {
+        OllamaHealth health = new OllamaHealth(1, 0);
+        health.recordFailure();
+        assertTrue(health.allowRequest());
+
+        health.recordSuccess();
+
+        assertEquals(OllamaHealth.State.CLOSED, health.getState());
+        assertTrue(health.allowRequest());
+    }
+
+    @Test
+    void failedTrialReopensTheCircuit() {
+        OllamaHealth health = new OllamaHealth(5, 0);
+        for (int i = 0; i < 5; i++) {
+            health.recordFailure();
+        }
+        assertTrue(health.allowRequest());
+
+        health.recordFailure();
+
+        assertEquals(OllamaHealth.State.OPEN, health.getState());
+        assertEquals(2L, health.getStatistics().get("timesOpened"));
+    }
+}
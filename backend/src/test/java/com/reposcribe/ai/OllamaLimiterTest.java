@@ -0,0 +1,110 @@
+package com.reposcribe.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OllamaLimiterTest {
+
+    @Test
+    void waitingUsersAreServedInTurn() throws Exception {
+        OllamaLimiter limiter = new OllamaLimiter(1, 32, 0, 0);
+        List<String> admissions = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> callers = new ArrayList<>();
+
+        OllamaLimiter.Permit holder = acquireAs(limiter, "holder");
+        // User A queues all of its calls before user B queues any
+        for (String user : List.of("A", "A", "A", "B", "B", "B")) {
+            callers.add(startCall(limiter, user, admissions));
+            awaitQueued(limiter, callers.size());
+        }
+
+        holder.close();
+        for (Thread caller : callers) {
+            caller.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        assertEquals(List.of("A", "B", "A", "B", "A", "B"), admissions);
+    }
+
+    @Test
+    void userAtItsLimitQueuesWhileOthersRun() throws Exception {
+        OllamaLimiter limiter = new OllamaLimiter(2, 32, 1, 0);
+        List<String> admissions = Collections.synchronizedList(new ArrayList<>());
+
+        OllamaLimiter.Permit first = acquireAs(limiter, "A");
+        Thread second = startCall(limiter, "A", admissions);
+        awaitQueued(limiter, 1);
+
+        // A slot is free, but only for another user
+        OllamaLimiter.Permit other = acquireAs(limiter, "B");
+        assertTrue(admissions.isEmpty());
+
+        first.close();
+        second.join(TimeUnit.SECONDS.toMillis(5));
+        other.close();
+        assertEquals(List.of("A"), admissions);
+    }
+
+    @Test
+    void fullQueueIsRejected() throws Exception {
+        OllamaLimiter limiter = new OllamaLimiter(1, 1, 0, 0);
+        List<String> admissions = Collections.synchronizedList(new ArrayList<>());
+
+        OllamaLimiter.Permit holder = acquireAs(limiter, "A");
+        Thread waiting = startCall(limiter, "A", admissions);
+        awaitQueued(limiter, 1);
+
+        OllamaLimiter.setCurrentUser("B");
+        try {
+            assertThrows(java.io.IOException.class, limiter::acquire);
+        } finally {
+            OllamaLimiter.setCurrentUser(null);
+        }
+        assertEquals(1L, limiter.getStatistics().get("rejectedQueueFull"));
+
+        holder.close();
+        waiting.join(TimeUnit.SECONDS.toMillis(5));
+        assertEquals(List.of("A"), admissions);
+    }
+
+    private static OllamaLimiter.Permit acquireAs(OllamaLimiter limiter, String user) throws Exception {
+        OllamaLimiter.setCurrentUser(user);
+        try {
+            return limiter.acquire();
+        } finally {
+            OllamaLimiter.setCurrentUser(null);
+        }
+    }
+
+    /**
+     * Start a call that records its user once admitted and releases its slot right away
+     */
+    private static Thread startCall(OllamaLimiter limiter, String user, List<String> admissions) {
+        Thread caller = new Thread(() -> {
+            try (OllamaLimiter.Permit permit = acquireAs(limiter, user)) {
+                admissions.add(user);
+            } catch (Exception e) {
+                admissions.add("failed " + user);
+            }
+        });
+        caller.setDaemon(true);
+        caller.start();
+        return caller;
+    }
+
+    private static void awaitQueued(OllamaLimiter limiter, int queued) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (((Number) limiter.getStatistics().get("queued")).intValue() < queued) {
+            assertTrue(System.currentTimeMillis() < deadline, "calls were not queued");
+            Thread.sleep(5);
+        }
+    }
+}
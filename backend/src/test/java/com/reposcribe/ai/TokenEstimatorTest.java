@@ -0,0 +1,38 @@
+package com.reposcribe.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TokenEstimatorTest {
+
+    @Test
+    void estimateRoundsUpToWholeTokens() {
+        assertEquals(0, TokenEstimator.estimate(""));
+        assertEquals(1, TokenEstimator.estimate("a"));
+        assertEquals(1, TokenEstimator.estimate("abcd"));
+        assertEquals(2, TokenEstimator.estimate("abcde"));
+        assertEquals(250, TokenEstimator.estimate(new StringBuilder("x".repeat(1000))));
+    }
+
+    @Test
+    void truncateKeepsTextThatFits() {
+        String text = "abcdefgh";
+        assertSame(text, TokenEstimator.truncate(text, 2));
+        assertSame(text, TokenEstimator.truncate(text, 10));
+    }
+
+    @Test
+    void truncateCutsToTheTokenBudget() {
+        assertEquals("abcd", TokenEstimator.truncate("abcdefgh", 1));
+        assertEquals("", TokenEstimator.truncate("abcdefgh", 0));
+        assertEquals("", TokenEstimator.truncate("abcdefgh", -3));
+    }
+
+    @Test
+    void truncatedTextFitsItsEstimate() {
+        String truncated = TokenEstimator.truncate("x".repeat(1001), 100);
+        assertEquals(100, TokenEstimator.estimate(truncated));
+    }
+}
@@ -0,0 +1,160 @@
+package com.reposcribe.ai.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseCacheTest {
+
+    private static final String RESPONSE = "0123456789";
+    // Memory weight of RESPONSE: two bytes per char
+    private static final long WEIGHT = RESPONSE.length() * 2L;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void keyIgnoresLineEndingsAndOptionOrder() {
+        Map<String, Object> options = new LinkedHashMap<>();
+        options.put("num_ctx", 8192);
+        options.put("num_predict", 512);
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("num_predict", 512);
+        reordered.put("num_ctx", 8192);
+
+        assertEquals(ResponseCache.key("llama3", null, options, "Describe\r\nthe project  \n"),
+            ResponseCache.key("llama3", null, reordered, "Describe\nthe project"));
+    }
+
+    @Test
+    void keySeparatesModelFormatOptionsAndPrompt() {
+        String key = ResponseCache.key("llama3", null, Map.of("num_ctx", 8192), "Describe the project");
+
+        assertNotEquals(key, ResponseCache.key("mistral", null, Map.of("num_ctx", 8192), "Describe the project"));
+        assertNotEquals(key, ResponseCache.key("llama3", "json", Map.of("num_ctx", 8192), "Describe the project"));
+        assertNotEquals(key, ResponseCache.key("llama3", null, Map.of("num_ctx", 4096), "Describe the project"));
+        assertNotEquals(key, ResponseCache.key("llama3", null, Map.of("num_ctx", 8192), "Describe the module"));
+    }
+
+    @Test
+    void leastRecentlyUsedResponseIsEvictedOverTheByteBudget() {
+        ResponseCache cache = memoryCache(3 * WEIGHT);
+        cache.put("a", RESPONSE);
+        cache.put("b", RESPONSE);
+        cache.put("c", RESPONSE);
+        cache.get("a");
+
+        cache.put("d", RESPONSE);
+
+        assertEquals(RESPONSE, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(RESPONSE, cache.get("c"));
+        assertEquals(RESPONSE, cache.get("d"));
+        assertEquals(1L, cache.getStatistics().get("evictions"));
+        assertEquals(3 * WEIGHT, cache.getStatistics().get("bytes"));
+    }
+
+    @Test
+    void responseLargerThanTheBudgetIsNotKept() {
+        ResponseCache cache = memoryCache(WEIGHT - 1);
+
+        cache.put("a", RESPONSE);
+
+        assertNull(cache.get("a"));
+        assertEquals(0L, cache.getStatistics().get("bytes"));
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        ResponseCache cache = new ResponseCache(false, 1 << 20, 60, false, tempDir.toString(), 0);
+
+        cache.put("a", RESPONSE);
+
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void diskTierSurvivesARestart() {
+        diskCache(1 << 20).put("a", RESPONSE);
+
+        ResponseCache restarted = diskCache(1 << 20);
+
+        assertEquals(RESPONSE, restarted.get("a"));
+        assertEquals(1L, restarted.getStatistics().get("diskHits"));
+        assertEquals(RESPONSE, restarted.get("a"));
+        assertEquals(1L, restarted.getStatistics().get("hits"));
+    }
+
+    @Test
+    void removeDropsBothTiers() {
+        ResponseCache cache = diskCache(1 << 20);
+        cache.put("a", RESPONSE);
+
+        cache.remove("a");
+
+        assertNull(cache.get("a"));
+        assertNull(diskCache(1 << 20).get("a"));
+        assertFalse(Files.exists(tempDir.resolve("a.txt")));
+    }
+
+    @Test
+    void expiredDiskResponseIsIgnoredAndDeleted() throws Exception {
+        diskCache(1 << 20).put("a", RESPONSE);
+        Path file = tempDir.resolve("a.txt");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - 61_000));
+
+        ResponseCache restarted = diskCache(1 << 20);
+
+        assertNull(restarted.get("a"));
+        assertFalse(Files.exists(file));
+        assertEquals(1L, restarted.getStatistics().get("expirations"));
+    }
+
+    @Test
+    void promotedResponseKeepsItsOriginalAge() throws Exception {
+        diskCache(1 << 20).put("a", RESPONSE);
+        Files.setLastModifiedTime(tempDir.resolve("a.txt"),
+            FileTime.fromMillis(System.currentTimeMillis() - 59_000));
+        ResponseCache restarted = diskCache(1 << 20);
+        assertEquals(RESPONSE, restarted.get("a"));
+
+        Thread.sleep(1500);
+
+        assertNull(restarted.get("a"));
+        assertTrue((Long) restarted.getStatistics().get("expirations") >= 1);
+    }
+
+    @Test
+    void oldestResponsesAreTrimmedOverTheDiskBudget() throws Exception {
+        ResponseCache cache = diskCache(2 * RESPONSE.length());
+        cache.put("a", RESPONSE);
+        Files.setLastModifiedTime(tempDir.resolve("a.txt"), FileTime.fromMillis(System.currentTimeMillis() - 2000));
+        cache.put("b", RESPONSE);
+        Files.setLastModifiedTime(tempDir.resolve("b.txt"), FileTime.fromMillis(System.currentTimeMillis() - 1000));
+
+        cache.put("c", RESPONSE);
+
+        assertFalse(Files.exists(tempDir.resolve("a.txt")));
+        assertTrue(Files.exists(tempDir.resolve("b.txt")));
+        assertTrue(Files.exists(tempDir.resolve("c.txt")));
+    }
+
+    private ResponseCache memoryCache(long maxBytes) {
+        return new ResponseCache(true, maxBytes, 60, false, tempDir.toString(), 0);
+    }
+
+    private ResponseCache diskCache(long diskMaxBytes) {
+        return new ResponseCache(true, 1 << 20, 1, true, tempDir.toString(), diskMaxBytes);
+    }
+}
@@ -0,0 +1,195 @@
+package com.reposcribe.generator;
+
+import com.reposcribe.ai.AIService;
+import com.reposcribe.ai.ClassDocumentationService;
+import com.reposcribe.ai.SemanticAnalysisService;
+import com.reposcribe.ai.dto.ProjectAnalysis;
+import com.reposcribe.generator.model.DocumentationProgress;
+import com.reposcribe.generator.model.ReadmeSection;
+import com.reposcribe.parser.model.ClassInfo;
+import com.reposcribe.parser.model.DirectoryAnalysis;
+import com.reposcribe.service.DirectoryCleaner;
+import com.reposcribe.service.SessionAnalysisService;
+import com.reposcribe.service.SessionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentationGeneratorServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final DirectoryCleaner directoryCleaner = new DirectoryCleaner(1);
+    private final SessionService sessionService = new SessionService(directoryCleaner);
+    // Both separate AI requests have to be in flight at the same time to pass it
+    private final CyclicBarrier bothRequested = new CyclicBarrier(2);
+    private final AtomicInteger separateRequests = new AtomicInteger();
+    private ProjectAnalysis combinedAnswer;
+    private DocumentationGeneratorService generator;
+
+    @AfterEach
+    void shutdown() {
+        if (generator != null) {
+            generator.shutdown();
+        }
+        directoryCleaner.shutdown();
+    }
+
+    @Test
+    void overviewAndArchitectureAreRequestedConcurrently() throws Exception {
+        String sessionId = sessionService.registerSession(tempDir.resolve("demo"));
+        generator = generator(false);
+
+        String readme = generator.generateDocumentation(sessionId);
+
+        assertTrue(readme.contains("Overview from the model"), readme);
+        assertTrue(readme.contains("Layered architecture"), readme);
+        assertEquals(2, separateRequests.get());
+    }
+
+    @Test
+    void sectionsArePublishedWhileTheAiRequestsRunConcurrently() {
+        String sessionId = sessionService.registerSession(tempDir.resolve("demo"));
+        generator = generator(false);
+        List<ReadmeSection.Part> parts = new CopyOnWriteArrayList<>();
+        List<ReadmeSection.Part> tokens = new CopyOnWriteArrayList<>();
+
+        DocumentationProgress progress = new DocumentationProgress();
+        generator.generateDocumentationWithProgress(sessionId, progress, new DocumentationListener() {
+            @Override
+            public void onToken(ReadmeSection.Part part, String token) {
+                tokens.add(part);
+            }
+
+            @Override
+            public void onSection(ReadmeSection section) {
+                parts.add(section.getPart());
+            }
+        });
+
+        assertNull(progress.getError());
+        assertEquals(100, progress.getProgress());
+        assertEquals(ReadmeSection.Part.values().length, parts.size());
+        assertTrue(tokens.contains(ReadmeSection.Part.OVERVIEW));
+        assertTrue(tokens.contains(ReadmeSection.Part.ARCHITECTURE));
+        assertTrue(progress.getDocumentation().contains("Overview from the model"));
+    }
+
+    @Test
+    void combinedAnswerReplacesTheSeparateRequests() {
+        String sessionId = sessionService.registerSession(tempDir.resolve("demo"));
+        combinedAnswer = new ProjectAnalysis();
+        combinedAnswer.setOverview("Combined overview");
+        combinedAnswer.setArchitecture("Combined architecture");
+        generator = generator(true);
+
+        DocumentationProgress progress = new DocumentationProgress();
+        generator.generateDocumentationWithProgress(sessionId, progress, DocumentationListener.NONE);
+
+        assertNull(progress.getError());
+        assertTrue(progress.getDocumentation().contains("Combined overview"));
+        assertTrue(progress.getDocumentation().contains("Combined architecture"));
+        assertEquals(0, separateRequests.get());
+    }
+
+    @Test
+    void unusableCombinedAnswerFallsBackToSeparateRequests() throws Exception {
+        String sessionId = sessionService.registerSession(tempDir.resolve("demo"));
+        generator = generator(true);
+
+        String readme = generator.generateDocumentation(sessionId);
+
+        assertTrue(readme.contains("Overview from the model"), readme);
+        assertEquals(2, separateRequests.get());
+    }
+
+    private DocumentationGeneratorService generator(boolean combinedAnalysis) {
+        ClassDocumentationService classDocumentation = new ClassDocumentationService(null, false, false, 2000, 20, 1);
+        return new DocumentationGeneratorService(new StubAnalysis(), new StubAi(), new StubSemantics(),
+            new TemplateService(), sessionService, classDocumentation, combinedAnalysis);
+    }
+
+    private void awaitOtherRequest() throws IOException {
+        separateRequests.incrementAndGet();
+        try {
+            bothRequested.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IOException("The other section was not requested concurrently", e);
+        }
+    }
+
+    private static final class StubAnalysis extends SessionAnalysisService {
+        private StubAnalysis() {
+            super(null, null, null, null, false);
+        }
+
+        @Override
+        public DirectoryAnalysis analyzeSession(String sessionId) {
+            ClassInfo classInfo = new ClassInfo();
+            classInfo.setName("App");
+            classInfo.setPackageName("demo");
+            DirectoryAnalysis analysis = new DirectoryAnalysis(List.of("java"));
+            analysis.setFileCount("java", 1);
+            analysis.setClasses("java", List.of(classInfo));
+            return analysis;
+        }
+    }
+
+    private final class StubAi extends AIService {
+        private StubAi() {
+            super(null, null);
+        }
+
+        @Override
+        public String generateProjectOverview(List<ClassInfo> classes) throws IOException {
+            return generateProjectOverview(classes, token -> { });
+        }
+
+        @Override
+        public String generateProjectOverview(List<ClassInfo> classes, Consumer<String> onToken) throws IOException {
+            awaitOtherRequest();
+            onToken.accept("Overview");
+            return "Overview from the model";
+        }
+
+        @Override
+        public ProjectAnalysis analyzeProject(List<ClassInfo> classes) throws IOException {
+            if (combinedAnswer == null) {
+                throw new IOException("Unusable answer");
+            }
+            return combinedAnswer;
+        }
+    }
+
+    private final class StubSemantics extends SemanticAnalysisService {
+        private StubSemantics() {
+            super(null);
+        }
+
+        @Override
+        public String identifyArchitecture(List<ClassInfo> classes) throws IOException {
+            return identifyArchitecture(classes, token -> { });
+        }
+
+        @Override
+        public String identifyArchitecture(List<ClassInfo> classes, Consumer<String> onToken) throws IOException {
+            awaitOtherRequest();
+            onToken.accept("Layered");
+            return "Layered architecture";
+        }
+    }
+}
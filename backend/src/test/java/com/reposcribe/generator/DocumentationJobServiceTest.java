@@ -0,0 +1,243 @@
+package com.reposcribe.generator;
+
+import com.reposcribe.generator.model.DocumentationProgress;
+import com.reposcribe.generator.model.ReadmeSection;
+import com.reposcribe.service.DirectoryCleaner;
+import com.reposcribe.service.SessionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentationJobServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final DirectoryCleaner directoryCleaner = new DirectoryCleaner(1);
+    private final SessionService sessionService = new SessionService(directoryCleaner);
+    private final ScriptedGenerator generator = new ScriptedGenerator();
+    private DocumentationJobService jobService;
+
+    @AfterEach
+    void shutdown() {
+        generator.proceed.countDown();
+        if (jobService != null) {
+            jobService.shutdown();
+        }
+        directoryCleaner.shutdown();
+    }
+
+    @Test
+    void submittedJobRunsInTheBackground() throws Exception {
+        String sessionId = sessionService.registerSession(tempDir.resolve("session"));
+        jobService = jobService(1, 4);
+
+        DocumentationProgress progress = jobService.submit(sessionId);
+        assertNotNull(progress.getJobId());
+        assertEquals(sessionId, progress.getSessionId());
+        assertTrue(generator.started.await(5, TimeUnit.SECONDS));
+        assertTrue(jobService.hasActiveJob(sessionId));
+        assertFalse(progress.isDone());
+
+        generator.proceed.countDown();
+        awaitDone(progress);
+
+        assertSame(progress, jobService.getJob(progress.getJobId()));
+        assertEquals("# session", progress.getDocumentation());
+        assertFalse(jobService.hasActiveJob(sessionId));
+    }
+
+    @Test
+    void repeatedSubmitJoinsTheActiveJob() {
+        String sessionId = sessionService.registerSession(tempDir.resolve("session"));
+        jobService = jobService(1, 4);
+
+        DocumentationProgress first = jobService.submit(sessionId);
+
+        assertSame(first, jobService.submit(sessionId));
+        assertEquals(1L, jobService.getStatistics().get("submitted"));
+    }
+
+    @Test
+    void unknownSessionIsRejected() {
+        jobService = jobService(1, 4);
+
+        assertThrows(IllegalArgumentException.class, () -> jobService.submit("missing"));
+        assertThrows(IllegalArgumentException.class, () -> jobService.submit(null));
+    }
+
+    @Test
+    void jobIsRejectedWhenWorkersAndQueueAreFull() throws Exception {
+        jobService = jobService(1, 1);
+        jobService.submit(sessionService.registerSession(tempDir.resolve("running")));
+        assertTrue(generator.started.await(5, TimeUnit.SECONDS));
+        jobService.submit(sessionService.registerSession(tempDir.resolve("queued")));
+        String rejected = sessionService.registerSession(tempDir.resolve("rejected"));
+
+        assertThrows(RejectedExecutionException.class, () -> jobService.submit(rejected));
+        assertFalse(jobService.hasActiveJob(rejected));
+        assertEquals(1L, jobService.getStatistics().get("rejected"));
+    }
+
+    @Test
+    void failedGenerationFinishesWithTheError() throws Exception {
+        String sessionId = sessionService.registerSession(tempDir.resolve("session"));
+        generator.failure = new IllegalStateException("parser crashed");
+        jobService = jobService(1, 4);
+
+        DocumentationProgress progress = jobService.submit(sessionId);
+        awaitDone(progress);
+
+        assertEquals("parser crashed", progress.getError());
+        assertFalse(jobService.hasActiveJob(sessionId));
+    }
+
+    @Test
+    void lateSubscriberGetsTheReplayThenLiveEvents() throws Exception {
+        String sessionId = sessionService.registerSession(tempDir.resolve("session"));
+        jobService = jobService(1, 4);
+        DocumentationProgress progress = jobService.submit(sessionId);
+        assertTrue(generator.started.await(5, TimeUnit.SECONDS));
+
+        RecordingListener listener = new RecordingListener();
+        assertTrue(jobService.subscribe(progress.getJobId(), listener));
+        generator.proceed.countDown();
+
+        assertTrue(listener.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("progress", "section TITLE", "token OVERVIEW", "section OVERVIEW", "complete"),
+            listener.events);
+    }
+
+    @Test
+    void subscriberAfterCompletionGetsTheWholeResult() throws Exception {
+        String sessionId = sessionService.registerSession(tempDir.resolve("session"));
+        jobService = jobService(1, 4);
+        generator.proceed.countDown();
+        DocumentationProgress progress = jobService.submit(sessionId);
+        awaitDone(progress);
+
+        RecordingListener listener = new RecordingListener();
+        assertTrue(jobService.subscribe(progress.getJobId(), listener));
+
+        assertTrue(listener.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("progress", "section TITLE", "section OVERVIEW", "complete"), listener.events);
+    }
+
+    @Test
+    void failingListenerDoesNotStopTheJobOrOtherListeners() throws Exception {
+        String sessionId = sessionService.registerSession(tempDir.resolve("session"));
+        jobService = jobService(1, 4);
+        DocumentationProgress progress = jobService.submit(sessionId);
+        assertTrue(generator.started.await(5, TimeUnit.SECONDS));
+
+        jobService.subscribe(progress.getJobId(), new DocumentationListener() {
+            @Override
+            public void onSection(ReadmeSection section) {
+                throw new IllegalStateException("connection closed");
+            }
+        });
+        RecordingListener listener = new RecordingListener();
+        jobService.subscribe(progress.getJobId(), listener);
+        generator.proceed.countDown();
+
+        assertTrue(listener.completed.await(5, TimeUnit.SECONDS));
+        awaitDone(progress);
+        assertEquals("# session", progress.getDocumentation());
+    }
+
+    @Test
+    void unknownJobCannotBeFollowed() {
+        jobService = jobService(1, 4);
+
+        assertFalse(jobService.subscribe("missing", new RecordingListener()));
+        assertFalse(jobService.subscribe(null, new RecordingListener()));
+    }
+
+    private DocumentationJobService jobService(int concurrency, int queueCapacity) {
+        return new DocumentationJobService(generator, sessionService, concurrency, queueCapacity, 30);
+    }
+
+    private static void awaitDone(DocumentationProgress progress) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!progress.isDone() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(progress.isDone());
+    }
+
+    private static final class RecordingListener implements DocumentationListener {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void onProgress(DocumentationProgress progress) {
+            events.add("progress");
+        }
+
+        @Override
+        public void onToken(ReadmeSection.Part part, String token) {
+            events.add("token " + part);
+        }
+
+        @Override
+        public void onSection(ReadmeSection section) {
+            events.add("section " + section.getPart());
+        }
+
+        @Override
+        public void onComplete(DocumentationProgress progress) {
+            events.add("complete");
+            completed.countDown();
+        }
+    }
+
+    /**
+     * Renders a title, waits until told to proceed, then renders an overview
+     */
+    private static final class ScriptedGenerator extends DocumentationGeneratorService {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch proceed = new CountDownLatch(1);
+        private volatile RuntimeException failure;
+
+        private ScriptedGenerator() {
+            super(null, null, null, null, null, null, true);
+        }
+
+        @Override
+        public void generateDocumentationWithProgress(
+                String sessionId,
+                DocumentationProgress progress,
+                DocumentationListener listener) {
+            if (failure != null) {
+                throw failure;
+            }
+            progress.setStatus("Rendering");
+            listener.onProgress(progress);
+            listener.onSection(new ReadmeSection(ReadmeSection.Part.TITLE, "# " + sessionId));
+            started.countDown();
+            try {
+                proceed.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            listener.onToken(ReadmeSection.Part.OVERVIEW, "Over");
+            listener.onSection(new ReadmeSection(ReadmeSection.Part.OVERVIEW, "Overview"));
+            progress.setDocumentation("# " + sessionId);
+        }
+    }
+}
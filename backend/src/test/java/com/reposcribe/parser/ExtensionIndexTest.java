@@ -0,0 +1,75 @@
+package com.reposcribe.parser;
+
+import com.reposcribe.parser.java.JavaParserService;
+import com.reposcribe.parser.javascript.JavaScriptParserService;
+import com.reposcribe.parser.python.PythonParserService;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ExtensionIndexTest {
+
+    private final Parser java = new JavaParserService();
+    private final Parser python = new PythonParserService();
+    private final Parser javascript = new JavaScriptParserService();
+
+    private final ExtensionIndex index = new ExtensionIndex(Map.of(
+        ".java", java,
+        ".py", python,
+        ".js", javascript,
+        ".ts", javascript
+    ));
+
+    @Test
+    void findsParserByExtension() {
+        assertSame(java, index.lookup(Path.of("src/main/java/App.java")));
+        assertSame(python, index.lookup(Path.of("scripts/build.py")));
+        assertSame(javascript, index.lookup(Path.of("web/app.ts")));
+    }
+
+    @Test
+    void extensionsMatchIgnoringCase() {
+        assertSame(java, index.lookup(Path.of("Legacy.JAVA")));
+        assertSame(python, index.lookup(Path.of("tool.Py")));
+    }
+
+    @Test
+    void onlyTheLastExtensionCounts() {
+        assertSame(python, index.lookup(Path.of("archive.java.py")));
+        assertNull(index.lookup(Path.of("App.java.bak")));
+        assertNull(index.lookup(Path.of("types.d.tsx")));
+    }
+
+    @Test
+    void filesWithoutExtensionAreNotRouted() {
+        assertNull(index.lookup(Path.of("Makefile")));
+        assertNull(index.lookup(Path.of(".gitignore")));
+        assertNull(index.lookup(Path.of("config/.java")));
+        assertNull(index.lookup(Path.of("release.d/Makefile")));
+        assertNull(index.lookup(Path.of("trailing.")));
+    }
+
+    @Test
+    void emptyIndexFindsNothing() {
+        assertNull(ExtensionIndex.EMPTY.lookup(Path.of("App.java")));
+    }
+
+    @Test
+    void everyExtensionIsFoundDespiteCollisions() {
+        Map<String, Parser> parsersByExtension = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            parsersByExtension.put(".x" + i, i % 2 == 0 ? java : python);
+        }
+        ExtensionIndex large = new ExtensionIndex(parsersByExtension);
+
+        for (int i = 0; i < 200; i++) {
+            assertSame(i % 2 == 0 ? java : python, large.lookup(Path.of("file.X" + i)));
+        }
+        assertNull(large.lookup(Path.of("file.x200")));
+    }
+}
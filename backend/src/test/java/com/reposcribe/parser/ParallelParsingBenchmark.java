@@ -0,0 +1,142 @@
+package com.reposcribe.parser;
+
+import com.reposcribe.parser.cache.ParseCache;
+import com.reposcribe.parser.cache.ParseIndex;
+import com.reposcribe.parser.java.JavaParserService;
+import com.reposcribe.parser.javascript.JavaScriptParserService;
+import com.reposcribe.parser.model.DirectoryAnalysis;
+import com.reposcribe.parser.python.PythonParserService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Times a directory analysis with sequential and with parallel parsing. The
+ * parse cache and index are disabled so every run parses every file. Not a
+ * unit test; run the main method from the test classpath:
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;dependencies&gt; \
+ *     com.reposcribe.parser.ParallelParsingBenchmark [directory] [iterations]
+ * </pre>
+ * Without a directory a synthetic project of 2000 Java classes is generated.
+ */
+public final class ParallelParsingBenchmark {
+
+    private static final int GENERATED_CLASSES = 2000;
+    private static final int GENERATED_METHODS = 20;
+    private static final int WARMUP_ITERATIONS = 3;
+
+    private ParallelParsingBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path generated = args.length > 0 ? null : generateProject();
+        Path directory = generated != null ? generated : Path.of(args[0]);
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        try {
+            UnifiedParserService sequential = parserService(false);
+            UnifiedParserService parallel = parserService(true);
+            try {
+                System.out.println("Directory: " + directory);
+                System.out.println("Processors: " + Runtime.getRuntime().availableProcessors());
+                long sequentialMillis = measure("sequential", sequential, directory, iterations);
+                long parallelMillis = measure("parallel", parallel, directory, iterations);
+                System.out.printf("Speedup: %.2fx%n", (double) sequentialMillis / Math.max(1, parallelMillis));
+            } finally {
+                sequential.shutdown();
+                parallel.shutdown();
+            }
+        } finally {
+            if (generated != null) {
+                deleteRecursively(generated);
+            }
+        }
+    }
+
+    private static UnifiedParserService parserService(boolean parallelEnabled) {
+        ParserRegistry registry = new ParserRegistry();
+        registry.registerParser(new JavaParserService());
+        registry.registerParser(new PythonParserService());
+        registry.registerParser(new JavaScriptParserService());
+        return new UnifiedParserService(
+            registry,
+            new SourceFileScanner(registry),
+            new ParseCache(false, 0),
+            new ParseIndex(false, System.getProperty("java.io.tmpdir"), 0),
+            parallelEnabled,
+            0,
+            0,
+            256
+        );
+    }
+
+    /**
+     * Median wall time of the analysis after a few warm-up runs
+     */
+    private static long measure(String label, UnifiedParserService service, Path directory, int iterations) {
+        int classes = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            classes = countClasses(service.analyzeDirectory(directory));
+        }
+
+        long[] millis = new long[Math.max(1, iterations)];
+        for (int i = 0; i < millis.length; i++) {
+            long start = System.nanoTime();
+            service.analyzeDirectory(directory);
+            millis[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(millis);
+        long median = millis[millis.length / 2];
+        System.out.printf("%-10s %d classes, median %d ms (min %d, max %d)%n",
+            label, classes, median, millis[0], millis[millis.length - 1]);
+        return median;
+    }
+
+    private static int countClasses(DirectoryAnalysis analysis) {
+        return analysis.getParsedClasses().values().stream().mapToInt(List::size).sum();
+    }
+
+    private static Path generateProject() throws IOException {
+        Path root = Files.createTempDirectory("reposcribe-benchmark");
+        for (int i = 0; i < GENERATED_CLASSES; i++) {
+            Path packageDirectory = root.resolve("src/main/java/com/example/module" + (i % 20));
+            Files.createDirectories(packageDirectory);
+            Files.writeString(packageDirectory.resolve("Generated" + i + ".java"), generateClass(i));
+        }
+        return root;
+    }
+
+    private static String generateClass(int index) {
+        StringBuilder source = new StringBuilder();
+        source.append("package com.example.module").append(index % 20).append(";\n\n");
+        source.append("import java.util.List;\n\n");
+        source.append("/**\n * Generated class ").append(index).append("\n */\n");
+        source.append("public class Generated").append(index).append(" implements Runnable {\n");
+        source.append("    private final List<String> values;\n\n");
+        source.append("    public Generated").append(index).append("(List<String> values) {\n");
+        source.append("        this.values = values;\n    }\n\n");
+        for (int m = 0; m < GENERATED_METHODS; m++) {
+            source.append("    /** Method ").append(m).append(" */\n");
+            source.append("    public int method").append(m).append("(int a, String b) {\n");
+            source.append("        int total = a;\n");
+            source.append("        for (String value : values) {\n");
+            source.append("            total += value.length() + b.length();\n");
+            source.append("        }\n");
+            source.append("        return total;\n    }\n\n");
+        }
+        source.append("    @Override\n    public void run() {\n        method0(1, \"x\");\n    }\n}\n");
+        return source.toString();
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.reposcribe.parser;
+
+import com.reposcribe.parser.java.JavaParserService;
+import com.reposcribe.parser.python.PythonParserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SourceFileScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Parser java = new JavaParserService();
+    private final Parser python = new PythonParserService();
+
+    @Test
+    void filesAreGroupedByParser() throws IOException {
+        write("src/main/java/App.java");
+        write("src/main/java/util/Strings.java");
+        write("scripts/build.py");
+        write("README.md");
+
+        Map<Parser, List<Path>> files = scanner().scan(tempDir);
+
+        assertEquals(List.of(
+                tempDir.resolve("src/main/java/App.java"),
+                tempDir.resolve("src/main/java/util/Strings.java")),
+            files.get(java).stream().sorted().toList());
+        assertEquals(List.of(tempDir.resolve("scripts/build.py")), files.get(python));
+        assertEquals(2, files.size());
+    }
+
+    @Test
+    void everyRegisteredParserHasAnEntry() {
+        Map<Parser, List<Path>> files = scanner().scan(tempDir);
+
+        assertTrue(files.get(java).isEmpty());
+        assertTrue(files.get(python).isEmpty());
+    }
+
+    @Test
+    void ignoredDirectoriesArePruned() throws IOException {
+        write("src/App.java");
+        write("target/classes/Generated.java");
+        write("node_modules/lib/index.py");
+        write("src/.venv/site.py");
+
+        Map<Parser, List<Path>> files = scanner().scan(tempDir);
+
+        assertEquals(List.of(tempDir.resolve("src/App.java")), files.get(java));
+        assertTrue(files.get(python).isEmpty());
+    }
+
+    @Test
+    void scannedDirectoryItselfMayHaveAnIgnoredName() throws IOException {
+        Path build = tempDir.resolve("build");
+        write("build/App.java");
+
+        assertEquals(List.of(build.resolve("App.java")), scanner().scan(build).get(java));
+    }
+
+    @Test
+    void missingDirectoryHasNoFiles() {
+        assertTrue(scanner().scan(tempDir.resolve("missing")).get(java).isEmpty());
+        assertTrue(SourceFileScanner.findFiles(null, path -> true).isEmpty());
+    }
+
+    @Test
+    void findFilesAppliesTheFilter() throws IOException {
+        write("docs/guide.md");
+        write("src/App.java");
+        write("build/notes.md");
+
+        List<Path> markdown = SourceFileScanner.findFiles(tempDir, path -> path.toString().endsWith(".md"));
+
+        assertEquals(List.of(tempDir.resolve("docs/guide.md")), markdown);
+    }
+
+    @Test
+    void relativePathsInsideIgnoredDirectoriesAreRecognized() {
+        assertTrue(SourceFileScanner.isInIgnoredDirectory(Path.of("node_modules/lib/index.js")));
+        assertTrue(SourceFileScanner.isInIgnoredDirectory(Path.of("src/__pycache__/mod.py")));
+        assertFalse(SourceFileScanner.isInIgnoredDirectory(Path.of("src/build.py")));
+        assertFalse(SourceFileScanner.isInIgnoredDirectory(Path.of("target")));
+    }
+
+    private SourceFileScanner scanner() {
+        ParserRegistry registry = new ParserRegistry();
+        registry.registerParser(java);
+        registry.registerParser(python);
+        return new SourceFileScanner(registry);
+    }
+
+    private void write(String relativePath) throws IOException {
+        Path file = tempDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "");
+    }
+}
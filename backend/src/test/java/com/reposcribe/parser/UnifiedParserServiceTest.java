@@ -0,0 +1,148 @@
+package com.reposcribe.parser;
+
+import com.reposcribe.parser.cache.ParseCache;
+import com.reposcribe.parser.cache.ParseIndex;
+import com.reposcribe.parser.java.JavaParserService;
+import com.reposcribe.parser.javascript.JavaScriptParserService;
+import com.reposcribe.parser.model.ClassInfo;
+import com.reposcribe.parser.model.DirectoryAnalysis;
+import com.reposcribe.parser.python.PythonParserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UnifiedParserServiceTest {
+
+    @TempDir
+    Path sources;
+
+    @TempDir
+    Path indexDirectory;
+
+    @Test
+    void identicalFilesKeepTheirOwnModuleNames() throws Exception {
+        Files.writeString(sources.resolve("utils.py"), "");
+        Files.writeString(sources.resolve("helpers.py"), "");
+        Files.writeString(sources.resolve("a.ts"), "export {};\n");
+        Files.writeString(sources.resolve("b.ts"), "export {};\n");
+
+        ParseIndex index = new ParseIndex(true, indexDirectory.toString(), 1 << 20);
+        index.open();
+        UnifiedParserService service = parserService(new ParseCache(true, 1 << 20), index);
+        try {
+            DirectoryAnalysis analysis = service.analyzeDirectory(sources);
+            assertEquals(Set.of("utils", "helpers"), names(analysis, "python"));
+            assertEquals(Set.of("a", "b"), names(analysis, "javascript"));
+
+            // Served from the memory cache
+            analysis = service.analyzeDirectory(sources);
+            assertEquals(Set.of("utils", "helpers"), names(analysis, "python"));
+            assertEquals(Set.of("a", "b"), names(analysis, "javascript"));
+            assertEquals(4L, service.getCacheStatistics().get("hits"));
+        } finally {
+            service.shutdown();
+            index.close();
+        }
+
+        // Served from the persistent index after a restart
+        ParseIndex reopened = new ParseIndex(true, indexDirectory.toString(), 1 << 20);
+        reopened.open();
+        UnifiedParserService restarted = parserService(new ParseCache(true, 1 << 20), reopened);
+        try {
+            DirectoryAnalysis analysis = restarted.analyzeDirectory(sources);
+            assertEquals(Set.of("utils", "helpers"), names(analysis, "python"));
+            assertEquals(Set.of("a", "b"), names(analysis, "javascript"));
+            assertEquals(4L, restarted.getIndexStatistics().get("hits"));
+        } finally {
+            restarted.shutdown();
+            reopened.close();
+        }
+    }
+
+    @Test
+    void identicalJavaSourcesShareOneEntry() throws Exception {
+        String source = "package demo;\n\npublic class Shared {\n    void run() {}\n}\n";
+        Files.createDirectories(sources.resolve("one"));
+        Files.createDirectories(sources.resolve("two"));
+        Files.writeString(sources.resolve("one/Shared.java"), source);
+        Files.writeString(sources.resolve("two/Shared.java"), source);
+
+        UnifiedParserService service = parserService(new ParseCache(true, 1 << 20), disabledIndex());
+        try {
+            List<ClassInfo> classes = service.analyzeDirectory(sources).getParsedClasses().get("java");
+
+            assertEquals(2, classes.size());
+            assertEquals(Set.of(sources.resolve("one/Shared.java").toString(), sources.resolve("two/Shared.java").toString()),
+                classes.stream().map(ClassInfo::getFilePath).collect(Collectors.toSet()));
+            assertEquals(1L, service.getCacheStatistics().get("hits"));
+            assertEquals(1L, service.getCacheStatistics().get("misses"));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void changedContentIsParsedAgain() throws Exception {
+        Path file = sources.resolve("App.java");
+        Files.writeString(file, "public class App {}\n");
+
+        UnifiedParserService service = parserService(new ParseCache(true, 1 << 20), disabledIndex());
+        try {
+            assertEquals("App", service.parseFile(file).getName());
+            Files.writeString(file, "public class Renamed {}\n");
+            assertEquals("Renamed", service.parseFile(file).getName());
+            assertEquals(0L, service.getCacheStatistics().get("hits"));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void statisticsComeFromTheSameParse() throws Exception {
+        Files.writeString(sources.resolve("First.java"), "package demo;\n\npublic class First {}\n");
+        Files.writeString(sources.resolve("Second.java"), "package demo;\n\npublic class Second {}\n");
+        Files.writeString(sources.resolve("tool.py"), "def run():\n    pass\n");
+        Files.writeString(sources.resolve("notes.txt"), "not a source\n");
+
+        UnifiedParserService service = parserService(new ParseCache(true, 1 << 20), disabledIndex());
+        try {
+            DirectoryAnalysis analysis = service.analyzeDirectory(sources);
+            Map<String, Object> statistics = analysis.getStatistics();
+
+            assertEquals(Map.of("java", 2, "python", 1, "javascript", 0), statistics.get("fileCounts"));
+            assertEquals(Map.of("java", 2, "python", 1, "javascript", 0), statistics.get("classCounts"));
+            assertEquals(Set.of("First", "Second"), names(analysis, "java"));
+            // Every file was parsed exactly once
+            assertEquals(3L, service.getCacheStatistics().get("misses"));
+            assertEquals(0L, service.getCacheStatistics().get("hits"));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static UnifiedParserService parserService(ParseCache cache, ParseIndex index) {
+        ParserRegistry registry = new ParserRegistry();
+        registry.registerParser(new JavaParserService());
+        registry.registerParser(new PythonParserService());
+        registry.registerParser(new JavaScriptParserService());
+        return new UnifiedParserService(registry, new SourceFileScanner(registry), cache, index, false, 1, 1, 16);
+    }
+
+    private ParseIndex disabledIndex() {
+        return new ParseIndex(false, indexDirectory.toString(), 0);
+    }
+
+    private static Set<String> names(DirectoryAnalysis analysis, String language) {
+        return analysis.getParsedClasses().get(language).stream()
+            .map(ClassInfo::getName)
+            .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,122 @@
+package com.reposcribe.parser.cache;
+
+import com.reposcribe.parser.model.ClassInfo;
+import com.reposcribe.parser.model.FieldInfo;
+import com.reposcribe.parser.model.MethodInfo;
+import com.reposcribe.parser.model.ParameterInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassInfoCodecTest {
+
+    @Test
+    void roundTripKeepsTheModel() throws Exception {
+        ClassInfo original = sampleClass();
+
+        ClassInfo decoded = ClassInfoCodec.decode(ClassInfoCodec.encode(original));
+
+        assertEquals("OrderService", decoded.getName());
+        assertEquals("com.example.orders", decoded.getPackageName());
+        assertFalse(decoded.isInterface());
+        assertTrue(decoded.isAbstract());
+        assertEquals(List.of("public", "abstract"), decoded.getModifiers());
+        assertEquals(List.of("@Service"), decoded.getAnnotations());
+        assertEquals(List.of("BaseService"), decoded.getSuperClasses());
+        assertEquals(List.of("Runnable", "Closeable"), decoded.getInterfaces());
+        assertEquals("Handles orders. \u00dcn\u00efc\u00f6d\u00e9 \u2713", decoded.getJavadoc());
+
+        assertEquals(2, decoded.getMethods().size());
+        MethodInfo method = decoded.getMethods().get(0);
+        assertEquals("placeOrder", method.getName());
+        assertEquals("Order", method.getReturnType());
+        assertEquals(List.of("public"), method.getModifiers());
+        assertEquals(List.of("@Transactional"), method.getAnnotations());
+        assertEquals("Places an order", method.getJavadoc());
+        assertFalse(method.isConstructor());
+        assertEquals(1, method.getParameters().size());
+        ParameterInfo parameter = method.getParameters().get(0);
+        assertEquals("request", parameter.getName());
+        assertEquals("OrderRequest", parameter.getType());
+        assertEquals(List.of("@Valid"), parameter.getAnnotations());
+        assertTrue(decoded.getMethods().get(1).isConstructor());
+
+        assertEquals(1, decoded.getFields().size());
+        FieldInfo field = decoded.getFields().get(0);
+        assertEquals("repository", field.getName());
+        assertEquals("OrderRepository", field.getType());
+        assertEquals(List.of("private", "final"), field.getModifiers());
+        assertEquals(List.of(), field.getAnnotations());
+        assertNull(field.getJavadoc());
+    }
+
+    @Test
+    void nullsAndEmptyClassesSurvive() throws Exception {
+        ClassInfo decoded = ClassInfoCodec.decode(ClassInfoCodec.encode(new ClassInfo()));
+
+        assertNull(decoded.getName());
+        assertNull(decoded.getPackageName());
+        assertNull(decoded.getJavadoc());
+        assertTrue(decoded.getMethods().isEmpty());
+        assertTrue(decoded.getFields().isEmpty());
+    }
+
+    @Test
+    void filePathIsNotStored() throws Exception {
+        ClassInfo original = sampleClass();
+        original.setFilePath("/tmp/session/OrderService.java");
+
+        assertNull(ClassInfoCodec.decode(ClassInfoCodec.encode(original)).getFilePath());
+    }
+
+    @Test
+    void recordsOfAnotherVersionAreIgnored() throws Exception {
+        byte[] data = ClassInfoCodec.encode(sampleClass());
+        data[0] = (byte) (ClassInfoCodec.FORMAT_VERSION + 1);
+
+        assertNull(ClassInfoCodec.decode(data));
+    }
+
+    private static ClassInfo sampleClass() {
+        ClassInfo classInfo = new ClassInfo();
+        classInfo.setName("OrderService");
+        classInfo.setPackageName("com.example.orders");
+        classInfo.setAbstract(true);
+        classInfo.setModifiers(List.of("public", "abstract"));
+        classInfo.setAnnotations(List.of("@Service"));
+        classInfo.setSuperClasses(List.of("BaseService"));
+        classInfo.setInterfaces(List.of("Runnable", "Closeable"));
+        classInfo.setJavadoc("Handles orders. \u00dcn\u00efc\u00f6d\u00e9 \u2713");
+
+        ParameterInfo parameter = new ParameterInfo();
+        parameter.setName("request");
+        parameter.setType("OrderRequest");
+        parameter.setAnnotations(List.of("@Valid"));
+
+        MethodInfo method = new MethodInfo();
+        method.setName("placeOrder");
+        method.setReturnType("Order");
+        method.setModifiers(List.of("public"));
+        method.setAnnotations(List.of("@Transactional"));
+        method.setJavadoc("Places an order");
+        method.getParameters().add(parameter);
+        classInfo.getMethods().add(method);
+
+        MethodInfo constructor = new MethodInfo();
+        constructor.setName("OrderService");
+        constructor.setConstructor(true);
+        classInfo.getMethods().add(constructor);
+
+        FieldInfo field = new FieldInfo();
+        field.setName("repository");
+        field.setType("OrderRepository");
+        field.setModifiers(List.of("private", "final"));
+        classInfo.getFields().add(field);
+        return classInfo;
+    }
+}
@@ -0,0 +1,130 @@
+package com.reposcribe.parser.cache;
+
+import com.reposcribe.parser.model.ClassInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParseIndexTest {
+
+    @TempDir
+    Path indexDirectory;
+
+    private final List<ParseIndex> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeIndexes() {
+        opened.forEach(ParseIndex::close);
+    }
+
+    @Test
+    void storedEntriesAreServedWithTheCallersPath() {
+        ParseIndex index = open(1 << 20);
+        index.put("key-1", classNamed("Stored"));
+
+        ClassInfo first = index.get("key-1", "/a/Stored.java");
+        ClassInfo second = index.get("key-1", "/b/Stored.java");
+
+        assertEquals("Stored", first.getName());
+        assertEquals("/a/Stored.java", first.getFilePath());
+        assertEquals("/b/Stored.java", second.getFilePath());
+        assertNull(index.get("key-2", "/a/Other.java"));
+        assertEquals(2L, index.getStatistics().get("hits"));
+        assertEquals(1L, index.getStatistics().get("misses"));
+    }
+
+    @Test
+    void entriesSurviveARestart() {
+        ParseIndex index = open(1 << 20);
+        index.put("key-1", classNamed("First"));
+        index.put("key-2", classNamed("Second"));
+        index.close();
+
+        ParseIndex reopened = open(1 << 20);
+        assertEquals(2, reopened.getStatistics().get("entries"));
+        assertEquals("First", reopened.get("key-1", "First.java").getName());
+        assertEquals("Second", reopened.get("key-2", "Second.java").getName());
+    }
+
+    @Test
+    void segmentOfAnotherFormatIsStartedAnew() throws Exception {
+        Files.write(indexDirectory.resolve("parse-index.seg"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+
+        ParseIndex index = open(1 << 20);
+        assertTrue(index.isEnabled());
+        assertEquals(0, index.getStatistics().get("entries"));
+
+        index.put("key-1", classNamed("Fresh"));
+        assertEquals("Fresh", index.get("key-1", "Fresh.java").getName());
+    }
+
+    @Test
+    void truncatedRecordIsDroppedOnOpen() throws Exception {
+        ParseIndex index = open(1 << 20);
+        index.put("key-1", classNamed("Complete"));
+        index.close();
+
+        Path segment = indexDirectory.resolve("parse-index.seg");
+        long size = Files.size(segment);
+        // A crash in the middle of appending a second record
+        Files.write(segment, new byte[]{0, 0, 0, 5, 'k', 'e'}, StandardOpenOption.APPEND);
+
+        ParseIndex reopened = open(1 << 20);
+        assertEquals(1, reopened.getStatistics().get("entries"));
+        assertEquals(size, reopened.getStatistics().get("bytes"));
+        assertEquals("Complete", reopened.get("key-1", "Complete.java").getName());
+    }
+
+    @Test
+    void secondIndexOnTheSameDirectoryIsDisabled() {
+        ParseIndex first = open(1 << 20);
+        ParseIndex second = open(1 << 20);
+
+        assertTrue(first.isEnabled());
+        assertFalse(second.isEnabled());
+        second.put("key-1", classNamed("Ignored"));
+        assertNull(first.get("key-1", "Ignored.java"));
+    }
+
+    @Test
+    void compactionKeepsRecentlyUsedEntries() {
+        ParseIndex index = open(4096);
+        for (int i = 0; i < 100; i++) {
+            index.put("key-" + i, classNamed("Class" + i));
+            // Keep the first entry in use
+            assertNotNull(index.get("key-0", "Class0.java"));
+        }
+
+        assertTrue((Long) index.getStatistics().get("compactions") > 0);
+        assertTrue((Long) index.getStatistics().get("bytes") <= 4096);
+        assertEquals("Class0", index.get("key-0", "Class0.java").getName());
+        assertEquals("Class99", index.get("key-99", "Class99.java").getName());
+        assertNull(index.get("key-1", "Class1.java"));
+    }
+
+    private ParseIndex open(long maxBytes) {
+        ParseIndex index = new ParseIndex(true, indexDirectory.toString(), maxBytes);
+        index.open();
+        opened.add(index);
+        return index;
+    }
+
+    private static ClassInfo classNamed(String name) {
+        ClassInfo classInfo = new ClassInfo();
+        classInfo.setName(name);
+        classInfo.setPackageName("com.example");
+        return classInfo;
+    }
+}
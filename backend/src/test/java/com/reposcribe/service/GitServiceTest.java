@@ -0,0 +1,287 @@
+package com.reposcribe.service;
+
+import com.reposcribe.model.RepositoryChanges;
+import com.reposcribe.parser.ParserRegistry;
+import com.reposcribe.parser.java.JavaParserService;
+import com.sun.net.httpserver.HttpServer;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GitServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final DirectoryCleaner directoryCleaner = new DirectoryCleaner(1);
+    private Path upstreamPath;
+    private Git upstream;
+    private HttpServer server;
+
+    @BeforeEach
+    void createUpstream() throws Exception {
+        upstreamPath = tempDir.resolve("upstream");
+        upstream = Git.init().setDirectory(upstreamPath.toFile()).setInitialBranch("main").call();
+        write("src/App.java", "class App {}");
+        write("src/Old.java", "class Old {}");
+        write("README.md", "# Demo");
+        commit("Initial commit");
+    }
+
+    @AfterEach
+    void closeUpstream() {
+        if (server != null) {
+            server.stop(0);
+        }
+        upstream.close();
+        directoryCleaner.shutdown();
+    }
+
+    @Test
+    void updateReportsChangedPathsAndMovesTheWorkingTree() throws Exception {
+        Path clonePath = cloneUpstream();
+        write("src/App.java", "class App { void run() {} }");
+        write("src/New.java", "class New {}");
+        delete("src/Old.java");
+        commit("Change sources");
+
+        RepositoryChanges changes = gitService().updateRepository(clonePath, null, null);
+
+        assertEquals(upstream.getRepository().resolve("HEAD").name(), changes.getNewCommit());
+        assertEquals(List.of("src/New.java"), changes.getAddedPaths());
+        assertEquals(List.of("src/App.java"), changes.getModifiedPaths());
+        assertEquals(List.of("src/Old.java"), changes.getDeletedPaths());
+        assertEquals("class App { void run() {} }", Files.readString(clonePath.resolve("src/App.java")));
+        assertTrue(Files.exists(clonePath.resolve("src/New.java")));
+        assertFalse(Files.exists(clonePath.resolve("src/Old.java")));
+    }
+
+    @Test
+    void updateWithoutNewCommitsReportsNoChanges() throws Exception {
+        Path clonePath = cloneUpstream();
+
+        RepositoryChanges changes = gitService().updateRepository(clonePath, null, null);
+
+        assertTrue(changes.isEmpty());
+        assertEquals(changes.getOldCommit(), changes.getNewCommit());
+    }
+
+    @Test
+    void renamedFileIsReportedAsDeletedAndAdded() throws Exception {
+        Path clonePath = cloneUpstream();
+        delete("src/Old.java");
+        write("src/Renamed.java", "class Old {}");
+        commit("Rename");
+
+        RepositoryChanges changes = gitService().updateRepository(clonePath, null, null);
+
+        assertEquals(List.of("src/Renamed.java"), changes.getAddedPaths());
+        assertEquals(List.of("src/Old.java"), changes.getDeletedPaths());
+    }
+
+    @Test
+    void updateRequiresAGitSession() throws Exception {
+        Path plain = Files.createDirectories(tempDir.resolve("plain"));
+
+        assertThrows(IllegalArgumentException.class, () -> gitService().updateRepository(plain, null, null));
+    }
+
+    @Test
+    void bareCloneIsReadFromTheObjectDatabase() throws Exception {
+        Path clonePath = cloneUpstream(true);
+        GitService gitService = gitService();
+
+        assertTrue(gitService.isBareRepository(clonePath));
+        assertFalse(gitService.isBareRepository(upstreamPath));
+        try (GitSourceTree tree = gitService.openSourceTree(clonePath)) {
+            assertEquals(upstream.getRepository().resolve("HEAD").name(), tree.getCommitId());
+            assertEquals(Set.of("src/App.java", "src/Old.java"), tree.getPaths());
+            assertEquals("class App {}", new String(tree.read(Path.of("src/App.java")), StandardCharsets.UTF_8));
+            assertThrows(FileNotFoundException.class, () -> tree.read(Path.of("README.md")));
+        }
+    }
+
+    @Test
+    void bareCloneUpdateMovesTheBranch() throws Exception {
+        Path clonePath = cloneUpstream(true);
+        write("src/New.java", "class New {}");
+        commit("Add source");
+        GitService gitService = gitService();
+
+        RepositoryChanges changes = gitService.updateRepository(clonePath, null, null);
+
+        assertEquals(List.of("src/New.java"), changes.getAddedPaths());
+        try (GitSourceTree tree = gitService.openSourceTree(clonePath)) {
+            assertEquals(changes.getNewCommit(), tree.getCommitId());
+            assertTrue(tree.getPaths().contains("src/New.java"));
+        }
+    }
+
+    @Test
+    void sourceOnlyCloneChecksOutParseableFiles() throws Exception {
+        GitService gitService = gitService(true, true);
+        Path clonePath = gitService.cloneRepository(serveUpstream(), null, null);
+        try {
+            assertTrue(Files.exists(clonePath.resolve("src/App.java")));
+            assertTrue(Files.exists(clonePath.resolve("src/Old.java")));
+            assertFalse(Files.exists(clonePath.resolve("README.md")));
+
+            write("src/New.java", "class New {}");
+            write("docs/guide.md", "Guide");
+            delete("src/Old.java");
+            commit("Change sources and docs");
+            publishRefs();
+
+            RepositoryChanges changes = gitService.updateRepository(clonePath, null, null);
+
+            assertEquals(Set.of("src/New.java", "docs/guide.md"), Set.copyOf(changes.getAddedPaths()));
+            assertTrue(Files.exists(clonePath.resolve("src/New.java")));
+            assertFalse(Files.exists(clonePath.resolve("src/Old.java")));
+            assertFalse(Files.exists(clonePath.resolve("docs/guide.md")));
+        } finally {
+            gitService.cleanup(clonePath);
+        }
+    }
+
+    @Test
+    void allBranchesAreFetchedWithoutSingleBranch() throws Exception {
+        upstream.branchCreate().setName("feature").call();
+        GitService gitService = gitService(false, false);
+        Path clonePath = gitService.cloneRepository(serveUpstream(), null, null, "main");
+        try (Git clone = Git.open(clonePath.toFile())) {
+            assertEquals("main", clone.getRepository().getBranch());
+            assertEquals(List.of("refs/remotes/origin/feature", "refs/remotes/origin/main"), remoteBranches(clone));
+            assertTrue(Files.exists(clonePath.resolve("README.md")));
+        } finally {
+            gitService.cleanup(clonePath);
+        }
+    }
+
+    @Test
+    void singleBranchCloneFetchesOnlyTheRequestedBranch() throws Exception {
+        upstream.checkout().setCreateBranch(true).setName("feature").call();
+        write("src/Feature.java", "class Feature {}");
+        commit("Feature");
+        upstream.checkout().setName("main").call();
+        GitService gitService = gitService(true, true);
+        Path clonePath = gitService.cloneRepository(serveUpstream(), null, null, "feature");
+        try (Git clone = Git.open(clonePath.toFile())) {
+            assertEquals("feature", clone.getRepository().getBranch());
+            assertEquals(List.of("refs/remotes/origin/feature"), remoteBranches(clone));
+            assertTrue(Files.exists(clonePath.resolve("src/Feature.java")));
+        } finally {
+            gitService.cleanup(clonePath);
+        }
+    }
+
+    private GitService gitService() {
+        return gitService(true, false);
+    }
+
+    private GitService gitService(boolean singleBranch, boolean sourceOnly) {
+        ParserRegistry parserRegistry = new ParserRegistry();
+        parserRegistry.registerParser(new JavaParserService());
+        GitMirrorCache mirrorCache = new GitMirrorCache(false, tempDir.resolve("mirrors").toString(), 0);
+        return new GitService(parserRegistry, mirrorCache, directoryCleaner, 30, 0, singleBranch, sourceOnly, false);
+    }
+
+    /**
+     * Serve the upstream repository over the dumb HTTP protocol, which needs nothing but its files
+     * @return URL of the repository
+     */
+    private String serveUpstream() throws IOException {
+        publishRefs();
+        Path gitDirectory = upstream.getRepository().getDirectory().toPath();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/repo.git/", exchange -> {
+            String path = exchange.getRequestURI().getPath().substring("/repo.git/".length());
+            Path file = gitDirectory.resolve(path).normalize();
+            if (!file.startsWith(gitDirectory) || !Files.isRegularFile(file)) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            byte[] content = Files.readAllBytes(file);
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(content);
+            }
+        });
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/repo.git";
+    }
+
+    /**
+     * Write info/refs, the ref listing dumb HTTP clients read
+     */
+    private void publishRefs() throws IOException {
+        Path gitDirectory = upstream.getRepository().getDirectory().toPath();
+        new RefWriter(upstream.getRepository().getRefDatabase().getRefsByPrefix(Constants.R_REFS)) {
+            @Override
+            protected void writeFile(String file, byte[] content) throws IOException {
+                Path target = gitDirectory.resolve(file);
+                Files.createDirectories(target.getParent());
+                Files.write(target, content);
+            }
+        }.writeInfoRefs();
+    }
+
+    private static List<String> remoteBranches(Git clone) throws IOException {
+        return clone.getRepository().getRefDatabase().getRefsByPrefix(Constants.R_REMOTES).stream()
+            .map(Ref::getName)
+            .sorted()
+            .toList();
+    }
+
+    private Path cloneUpstream() throws Exception {
+        return cloneUpstream(false);
+    }
+
+    private Path cloneUpstream(boolean bare) throws Exception {
+        Path clonePath = tempDir.resolve("clone");
+        Git.cloneRepository()
+            .setURI(upstreamPath.toUri().toString())
+            .setDirectory(clonePath.toFile())
+            .setBare(bare)
+            .call()
+            .close();
+        return clonePath;
+    }
+
+    private void write(String path, String content) throws IOException {
+        Path file = upstreamPath.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private void delete(String path) throws IOException {
+        Files.delete(upstreamPath.resolve(path));
+    }
+
+    private void commit(String message) throws Exception {
+        upstream.add().addFilepattern(".").call();
+        upstream.add().addFilepattern(".").setUpdate(true).call();
+        upstream.commit().setMessage(message).setAuthor("Test", "test@example.com")
+            .setCommitter("Test", "test@example.com").setSign(false).call();
+    }
+}
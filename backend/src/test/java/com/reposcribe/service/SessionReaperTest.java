@@ -0,0 +1,164 @@
+package com.reposcribe.service;
+
+import com.reposcribe.generator.DocumentationGeneratorService;
+import com.reposcribe.generator.DocumentationJobService;
+import com.reposcribe.generator.DocumentationListener;
+import com.reposcribe.generator.model.DocumentationProgress;
+import com.reposcribe.model.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionReaperTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final DirectoryCleaner directoryCleaner = new DirectoryCleaner(1);
+    private final BlockingGenerator generator = new BlockingGenerator();
+    private DocumentationJobService jobService;
+
+    @AfterEach
+    void shutdown() {
+        generator.release.countDown();
+        if (jobService != null) {
+            jobService.shutdown();
+        }
+        directoryCleaner.shutdown();
+    }
+
+    @Test
+    void leastRecentlyUsedSessionIsEvictedOverTheDiskBudget() throws Exception {
+        SessionService sessionService = new SessionService(directoryCleaner);
+        String older = sessionService.registerSession(sessionDirectory("older", 100));
+        Thread.sleep(5);
+        String newer = sessionService.registerSession(sessionDirectory("newer", 100));
+        Thread.sleep(5);
+        sessionService.getSession(older);
+
+        SessionReaper reaper = reaper(sessionService, 150);
+        reaper.reap();
+
+        assertTrue(sessionService.sessionExists(older));
+        assertFalse(sessionService.sessionExists(newer));
+        assertEquals(1L, reaper.getStatistics().get("evictedForDisk"));
+        assertEquals(100L, reaper.getStatistics().get("diskBytes"));
+    }
+
+    @Test
+    void sessionWithinTheBudgetIsKept() throws Exception {
+        SessionService sessionService = new SessionService(directoryCleaner);
+        String sessionId = sessionService.registerSession(sessionDirectory("session", 100));
+
+        reaper(sessionService, 1000).reap();
+
+        assertTrue(sessionService.sessionExists(sessionId));
+    }
+
+    @Test
+    void sessionWithARunningJobIsKeptUntilItFinishes() throws Exception {
+        SessionService sessionService = new SessionService(directoryCleaner);
+        String sessionId = sessionService.registerSession(sessionDirectory("session", 100));
+        SessionReaper reaper = reaper(sessionService, 1);
+        jobService.submit(sessionId);
+        assertTrue(generator.started.await(5, TimeUnit.SECONDS));
+
+        reaper.reap();
+        assertTrue(sessionService.sessionExists(sessionId));
+        assertEquals(1L, reaper.getStatistics().get("skippedActiveJobs"));
+
+        generator.release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (jobService.hasActiveJob(sessionId) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        reaper.reap();
+        assertFalse(sessionService.sessionExists(sessionId));
+    }
+
+    @Test
+    void jobCannotBeSubmittedForASessionBeingRemoved() throws Exception {
+        AtomicReference<Object> submitted = new AtomicReference<>();
+        // Submits a job while the reaper is between its busy check and the removal
+        SessionService sessionService = new SessionService(directoryCleaner) {
+            @Override
+            public Session cleanupSession(String sessionId) {
+                Thread submitter = new Thread(() -> {
+                    try {
+                        submitted.set(jobService.submit(sessionId));
+                    } catch (RuntimeException e) {
+                        submitted.set(e);
+                    }
+                });
+                submitter.start();
+                try {
+                    submitter.join(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.cleanupSession(sessionId);
+            }
+        };
+        String sessionId = sessionService.registerSession(sessionDirectory("session", 100));
+        SessionReaper reaper = reaper(sessionService, 1);
+
+        reaper.reap();
+
+        assertFalse(sessionService.sessionExists(sessionId));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (submitted.get() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(submitted.get());
+        assertInstanceOf(IllegalArgumentException.class, submitted.get());
+    }
+
+    private SessionReaper reaper(SessionService sessionService, long diskBudgetBytes) {
+        jobService = new DocumentationJobService(generator, sessionService, 1, 4, 30);
+        return new SessionReaper(sessionService, directoryCleaner, jobService, 0, 0, diskBudgetBytes);
+    }
+
+    private Path sessionDirectory(String name, int bytes) throws IOException {
+        Path directory = Files.createDirectories(tempDir.resolve(name));
+        Files.write(directory.resolve("Main.java"), new byte[bytes]);
+        return directory;
+    }
+
+    /**
+     * Holds every job until released
+     */
+    private static final class BlockingGenerator extends DocumentationGeneratorService {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private BlockingGenerator() {
+            super(null, null, null, null, null, null, true);
+        }
+
+        @Override
+        public void generateDocumentationWithProgress(
+                String sessionId,
+                DocumentationProgress progress,
+                DocumentationListener listener) {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
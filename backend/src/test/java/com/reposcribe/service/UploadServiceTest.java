@@ -0,0 +1,255 @@
+package com.reposcribe.service;
+
+import com.reposcribe.parser.ParserRegistry;
+import com.reposcribe.parser.java.JavaParserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadServiceTest {
+
+    private final Path extractPath = Path.of("/tmp/reposcribe-upload-test");
+
+    @Test
+    void entriesResolveBelowTheExtractionDirectory() throws Exception {
+        assertEquals(extractPath.resolve("src/App.java"),
+            UploadService.resolveEntry(extractPath, new ZipEntry("src/App.java")));
+        assertEquals(extractPath.resolve("docs/"),
+            UploadService.resolveEntry(extractPath, new ZipEntry("docs/")));
+    }
+
+    @Test
+    void dotDotInsideTheDirectoryIsAllowed() throws Exception {
+        assertEquals(extractPath.resolve("src/../App.java"),
+            UploadService.resolveEntry(extractPath, new ZipEntry("src/../App.java")));
+    }
+
+    @Test
+    void zipSlipEntriesAreRejected() {
+        assertThrows(IOException.class,
+            () -> UploadService.resolveEntry(extractPath, new ZipEntry("../evil.sh")));
+        assertThrows(IOException.class,
+            () -> UploadService.resolveEntry(extractPath, new ZipEntry("src/../../evil.sh")));
+        assertThrows(IOException.class,
+            () -> UploadService.resolveEntry(extractPath, new ZipEntry("/etc/cron.d/evil")));
+    }
+
+    @Test
+    void siblingDirectoriesWithTheSamePrefixAreRejected() {
+        assertThrows(IOException.class,
+            () -> UploadService.resolveEntry(extractPath, new ZipEntry("../reposcribe-upload-test-other/evil.sh")));
+    }
+
+    @Test
+    void cleanupWaitsForRunningExtractions() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        List<Integer> runningAtCleanup = new CopyOnWriteArrayList<>();
+        DirectoryCleaner cleaner = new DirectoryCleaner(1) {
+            @Override
+            public CompletableFuture<Long> deleteAsync(Path path) {
+                runningAtCleanup.add(running.get());
+                return super.deleteAsync(path);
+            }
+        };
+        ParserRegistry parserRegistry = new ParserRegistry();
+        parserRegistry.registerParser(new JavaParserService());
+        UploadService uploadService = new UploadService(parserRegistry, cleaner, true, true, true, 2);
+
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        Consumer<Path> onSourceExtracted = file -> {
+            if (file.endsWith("Slow.java")) {
+                running.incrementAndGet();
+                slowStarted.countDown();
+                sleepUninterruptibly(300);
+                running.decrementAndGet();
+            } else {
+                awaitUninterruptibly(slowStarted);
+                throw new IllegalStateException("Broken entry");
+            }
+        };
+
+        try {
+            MockMultipartFile upload = new MockMultipartFile(
+                "file", "project.zip", "application/zip", zip("src/Broken.java", "src/Slow.java"));
+
+            assertThrows(IOException.class, () -> uploadService.processZipUpload(upload, onSourceExtracted));
+            assertEquals(List.of(0), runningAtCleanup);
+        } finally {
+            uploadService.shutdown();
+            cleaner.shutdown();
+        }
+    }
+
+    @Test
+    void uploadIsKeptAsAnArchiveWhenExtractionIsOff() throws Exception {
+        DirectoryCleaner cleaner = new DirectoryCleaner(1);
+        UploadService uploadService = new UploadService(javaRegistry(), cleaner, false, true, true, 2);
+        Path sessionPath = null;
+        try {
+            sessionPath = uploadService.processZipUpload(upload(zip("src/App.java", "README.md")));
+
+            assertTrue(uploadService.isArchive(sessionPath));
+            try (Stream<Path> files = Files.list(sessionPath)) {
+                assertEquals(1, files.count());
+            }
+            try (ZipSourceTree tree = uploadService.openArchive(sessionPath)) {
+                assertEquals(Set.of("src/App.java", "README.md"), tree.getPaths());
+            }
+        } finally {
+            if (sessionPath != null) {
+                uploadService.cleanup(sessionPath);
+            }
+            uploadService.shutdown();
+            cleaner.shutdown();
+        }
+    }
+
+    @Test
+    void invalidArchiveIsRejectedAtUpload() {
+        DirectoryCleaner cleaner = new DirectoryCleaner(1);
+        UploadService uploadService = new UploadService(javaRegistry(), cleaner, false, true, true, 2);
+        try {
+            MockMultipartFile upload = upload("not a zip".getBytes(StandardCharsets.UTF_8));
+
+            assertThrows(IllegalArgumentException.class, () -> uploadService.processZipUpload(upload));
+        } finally {
+            uploadService.shutdown();
+            cleaner.shutdown();
+        }
+    }
+
+    @Test
+    void sourceOnlyExtractionKeepsParseableFiles() throws Exception {
+        for (boolean parallel : new boolean[] {false, true}) {
+            assertEquals(Set.of("src/App.java", "src/util/Strings.java"),
+                extractedFiles(true, parallel, "src/", "src/App.java", "src/util/Strings.java", "README.md",
+                    "lib/tool.jar", "target/classes/Generated.java", "node_modules/pkg/Index.java"));
+        }
+    }
+
+    @Test
+    void fullExtractionKeepsEveryFile() throws Exception {
+        for (boolean parallel : new boolean[] {false, true}) {
+            assertEquals(Set.of("src/App.java", "README.md", "target/Generated.java"),
+                extractedFiles(false, parallel, "src/App.java", "README.md", "target/Generated.java"));
+        }
+    }
+
+    @Test
+    void everyExtractedSourceIsPublished() throws Exception {
+        for (boolean sourceOnly : new boolean[] {false, true}) {
+            for (boolean parallel : new boolean[] {false, true}) {
+                DirectoryCleaner cleaner = new DirectoryCleaner(1);
+                UploadService uploadService = new UploadService(javaRegistry(), cleaner, true, sourceOnly, parallel, 2);
+                List<Path> published = new CopyOnWriteArrayList<>();
+                Path sessionPath = null;
+                try {
+                    sessionPath = uploadService.processZipUpload(
+                        upload(zip("src/App.java", "README.md", "target/Generated.java", "src/Util.java")),
+                        published::add);
+
+                    assertEquals(Set.of(sessionPath.resolve("src/App.java"), sessionPath.resolve("src/Util.java")),
+                        Set.copyOf(published));
+                    assertEquals(2, published.size());
+                } finally {
+                    if (sessionPath != null) {
+                        uploadService.cleanup(sessionPath);
+                    }
+                    uploadService.shutdown();
+                    cleaner.shutdown();
+                }
+            }
+        }
+    }
+
+    /**
+     * Extract an archive of the given entries and list the files written, relative to the session
+     */
+    private static Set<String> extractedFiles(boolean sourceOnly, boolean parallel, String... names)
+            throws Exception {
+        DirectoryCleaner cleaner = new DirectoryCleaner(1);
+        UploadService uploadService = new UploadService(javaRegistry(), cleaner, true, sourceOnly, parallel, 2);
+        Path sessionPath = null;
+        try {
+            sessionPath = uploadService.processZipUpload(upload(zip(names)));
+            Path root = sessionPath;
+            try (Stream<Path> files = Files.walk(root)) {
+                return files.filter(Files::isRegularFile)
+                    .map(file -> root.relativize(file).toString().replace('\\', '/'))
+                    .collect(Collectors.toSet());
+            }
+        } finally {
+            if (sessionPath != null) {
+                uploadService.cleanup(sessionPath);
+            }
+            uploadService.shutdown();
+            cleaner.shutdown();
+        }
+    }
+
+    private static ParserRegistry javaRegistry() {
+        ParserRegistry parserRegistry = new ParserRegistry();
+        parserRegistry.registerParser(new JavaParserService());
+        return parserRegistry;
+    }
+
+    private static MockMultipartFile upload(byte[] content) {
+        return new MockMultipartFile("file", "project.zip", "application/zip", content);
+    }
+
+    private static byte[] zip(String... names) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (String name : names) {
+                zip.putNextEntry(new ZipEntry(name));
+                if (!name.endsWith("/")) {
+                    zip.write("class A {}".getBytes(StandardCharsets.UTF_8));
+                }
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void sleepUninterruptibly(long millis) {
+        long deadline = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                // Keep sleeping, like a write that ignores cancellation
+            }
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException e) {
+                // Keep waiting
+            }
+        }
+    }
+}
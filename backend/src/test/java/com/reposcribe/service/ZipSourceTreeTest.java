@@ -0,0 +1,77 @@
+package com.reposcribe.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ZipSourceTreeTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void filesAreListedInArchiveOrderWithoutDirectories() throws IOException {
+        Path archive = archive("src/", "src/App.java", "README.md", "src/util/Strings.java");
+
+        try (ZipSourceTree tree = new ZipSourceTree(archive)) {
+            assertEquals(List.of("src/App.java", "README.md", "src/util/Strings.java"), List.copyOf(tree.getPaths()));
+        }
+    }
+
+    @Test
+    void contentIsReadInPlace() throws IOException {
+        Path archive = archive("src/App.java");
+
+        try (ZipSourceTree tree = new ZipSourceTree(archive)) {
+            assertEquals("content of src/App.java",
+                new String(tree.read(Path.of("src/App.java")), StandardCharsets.UTF_8));
+            assertEquals("content of src/App.java",
+                new String(tree.read(Path.of("src/./App.java").normalize()), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void missingFileCannotBeRead() throws IOException {
+        Path archive = archive("src/App.java");
+
+        try (ZipSourceTree tree = new ZipSourceTree(archive)) {
+            assertThrows(FileNotFoundException.class, () -> tree.read(Path.of("src/Other.java")));
+        }
+    }
+
+    @Test
+    void entriesEscapingTheRootAreSkipped() throws IOException {
+        Path archive = archive("../evil.java", "src/../../evil.java", "/abs/evil.java", "src/App.java");
+
+        try (ZipSourceTree tree = new ZipSourceTree(archive)) {
+            assertEquals(List.of("src/App.java"), List.copyOf(tree.getPaths()));
+        }
+    }
+
+    private Path archive(String... names) throws IOException {
+        Path archive = tempDir.resolve("upload.zip");
+        try (OutputStream out = Files.newOutputStream(archive);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (String name : names) {
+                zip.putNextEntry(new ZipEntry(name));
+                if (!name.endsWith("/")) {
+                    zip.write(("content of " + name).getBytes(StandardCharsets.UTF_8));
+                }
+                zip.closeEntry();
+            }
+        }
+        return archive;
+    }
+}
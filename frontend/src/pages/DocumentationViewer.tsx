@@ -61,7 +61,9 @@ const DocumentationViewer = () => {
         // Poll for completion
         const pollInterval = setInterval(async () => {
           try {
-            const updated = await documentationService.generateWithProgress(sessionId);
+            const updated = progressData.jobId
+              ? await documentationService.getJob(progressData.jobId)
+              : await documentationService.generateWithProgress(sessionId);
             setStatus(updated.status);
             setProgress(updated.progress);
 
@@ -8,6 +8,9 @@ export interface DocumentationResponse {
 }
 
 export interface DocumentationProgress {
+  jobId?: string;
+  sessionId?: string;
+  done?: boolean;
   status: string;
   progress: number;
   documentation?: string;
@@ -33,6 +36,11 @@ export const documentationService = {
     return response.data;
   },
 
+  getJob: async (jobId: string): Promise<DocumentationProgress> => {
+    const response = await api.get<DocumentationProgress>(`/documentation/jobs/${jobId}`);
+    return response.data;
+  },
+
   download: async (sessionId: string, format: string = 'markdown'): Promise<Blob> => {
     const response = await api.get('/documentation/download', {
       params: { sessionId, format },